@@ -62,6 +62,21 @@ public class Annotations{
         low
     }
 
+    /**
+     * Order in which the server sends unreliable packets to a client that is short on bandwidth.
+     * Reliable packets are always sent first.
+     */
+    public enum SendPriority{
+        /** Player and basic game state. */
+        players,
+        /** Unit and block state. */
+        units,
+        /** Bullets and shots. */
+        bullets,
+        /** Purely cosmetic effects. */
+        effects
+    }
+
     /** A set of two booleans, one specifying server and one specifying client. */
     public enum Loc{
         /** Method can only be invoked on the client from the server. */
@@ -124,6 +139,9 @@ public class Annotations{
 
         /** Priority of this event. */
         PacketPriority priority() default PacketPriority.normal;
+
+        /** Priority of this packet when bandwidth is limited. Only applies to unreliable packets sent by the server. */
+        SendPriority sendPriority() default SendPriority.units;
     }
 
     /**
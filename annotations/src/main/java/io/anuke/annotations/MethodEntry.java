@@ -29,9 +29,11 @@ public class MethodEntry{
     public final ExecutableElement element;
     /** The assigned packet priority. Only used in clients. */
     public final PacketPriority priority;
+    /** The order in which this packet is sent when bandwidth is limited. Only used in servers. */
+    public final SendPriority sendPriority;
 
     public MethodEntry(String className, String targetMethod, Loc where, Variant target,
-                       Loc local, boolean unreliable, boolean forward, int id, ExecutableElement element, PacketPriority priority){
+                       Loc local, boolean unreliable, boolean forward, int id, ExecutableElement element, PacketPriority priority, SendPriority sendPriority){
         this.className = className;
         this.forward = forward;
         this.targetMethod = targetMethod;
@@ -42,6 +44,7 @@ public class MethodEntry{
         this.element = element;
         this.unreliable = unreliable;
         this.priority = priority;
+        this.sendPriority = sendPriority;
     }
 
     @Override
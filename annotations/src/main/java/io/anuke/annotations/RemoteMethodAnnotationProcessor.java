@@ -110,7 +110,7 @@ public class RemoteMethodAnnotationProcessor extends AbstractProcessor{
 
                     //create and add entry
                     MethodEntry method = new MethodEntry(entry.name, Utils.getMethodName(element), annotation.targets(), annotation.variants(),
-                    annotation.called(), annotation.unreliable(), annotation.forward(), lastMethodID++, (ExecutableElement)element, annotation.priority());
+                    annotation.called(), annotation.unreliable(), annotation.forward(), lastMethodID++, (ExecutableElement)element, annotation.priority(), annotation.sendPriority());
 
                     entry.methods.add(method);
                     methods.add(method);
@@ -132,6 +132,8 @@ public class RemoteWriteGenerator{
         method.addStatement("packet.writeBuffer = TEMP_BUFFER");
         //assign priority
         method.addStatement("packet.priority = (byte)" + methodEntry.priority.ordinal());
+        //assign send priority
+        method.addStatement("packet.sendPriority = (byte)" + methodEntry.sendPriority.ordinal());
         //assign method ID
         method.addStatement("packet.type = (byte)" + methodEntry.id);
         //rewind buffer
@@ -0,0 +1,104 @@
+package io.anuke.mindustry.ai;
+
+import io.anuke.arc.collection.FloatArray;
+import io.anuke.arc.util.Time;
+
+/**
+ * Spreads expensive unit AI decisions, such as retargeting and core searches, across ticks.
+ * Units ask for a decision once it is due; at most {@link #maxDecisions} are granted per tick,
+ * and the rest are deferred until a later tick has budget left.
+ * Deferred decisions are granted before newer ones, oldest first, so that no unit is starved under sustained load.
+ */
+public class AIScheduler{
+    /** Maximum amount of decisions granted per tick. */
+    public int maxDecisions = 150;
+
+    private int granted, deferred, forced, lastGranted, lastDeferred, lastForced;
+    private float lag, lastLag;
+    /** Due times of the decisions deferred this tick. */
+    private final FloatArray deferredDue = new FloatArray();
+    /** Decisions due later than this are not granted this tick, as older ones fill the budget. */
+    private float cutoff = Float.MAX_VALUE;
+    /** Time of this and the last tick. Decisions due by the last tick were deferred, and take precedence over newly due ones. */
+    private float time = -1f, lastTime = -1f;
+    /** Amount of deferred decisions that have not asked again this tick. */
+    private int waiting;
+
+    /** Resets the budget. Called once per tick by the logic. */
+    public void update(){
+        lastGranted = granted;
+        lastDeferred = deferred;
+        lastForced = forced;
+        lastLag = lag;
+        granted = deferred = forced = 0;
+        lag = 0f;
+
+        //if more were deferred than fit in a tick, only the oldest of them are granted
+        if(deferredDue.size >= maxDecisions){
+            deferredDue.sort();
+            cutoff = deferredDue.get(maxDecisions - 1);
+        }else{
+            cutoff = Float.MAX_VALUE;
+        }
+        waiting = deferredDue.size;
+        deferredDue.clear();
+        lastTime = time;
+        time = Time.time();
+    }
+
+    /**
+     * Returns a time at which a unit should make its first decision, offset by ID so that units spawned together
+     * do not all decide on the same tick.
+     */
+    public float phase(int id, float interval){
+        return Time.time() + (id & 0xffff) % Math.max((int)interval, 1);
+    }
+
+    /**
+     * Asks to make a decision that was due at a specific time.
+     * @return whether the decision may be made this tick. If not, the caller should ask again next tick.
+     */
+    public boolean grant(float due){
+        if(Time.time() < due) return false;
+
+        //newly due decisions only get what is left once every deferred one could be granted
+        boolean old = due <= lastTime;
+        boolean allowed = granted < maxDecisions && due <= cutoff && (old || granted + waiting < maxDecisions);
+        if(old && waiting > 0) waiting--;
+
+        if(!allowed){
+            deferred++;
+            deferredDue.add(due);
+            lag = Math.max(lag, Time.time() - due);
+            return false;
+        }
+
+        granted++;
+        return true;
+    }
+
+    /** Counts a decision that had to be made immediately, outside of the schedule. It does not use up the budget. */
+    public void force(){
+        forced++;
+    }
+
+    /** @return the amount of scheduled decisions made last tick. */
+    public int granted(){
+        return lastGranted;
+    }
+
+    /** @return the amount of decisions made last tick outside of the schedule. */
+    public int forced(){
+        return lastForced;
+    }
+
+    /** @return the amount of decisions deferred last tick, because the budget was used up. */
+    public int backlog(){
+        return lastDeferred;
+    }
+
+    /** @return how long the longest deferred decision had been waiting last tick, in ticks. */
+    public float lag(){
+        return lastLag;
+    }
+}
@@ -15,6 +15,8 @@ import io.anuke.mindustry.world.*;
 import io.anuke.mindustry.world.blocks.*;
 import io.anuke.mindustry.world.meta.*;
 
+import java.util.Arrays;
+
 import static io.anuke.mindustry.Vars.*;
 
 /** Class used for indexing special target blocks for AI. */
@@ -25,13 +27,26 @@ public class BlockIndexer{
 
     /** Set of all ores that are being scanned. */
     private final ObjectSet<Item> scanOres = ObjectSet.with(Item.getAllOres().toArray(Item.class));
-    private final ObjectSet<Item> itemSet = new ObjectSet<>();
-    /** Stores all ore quadtrants on the map. */
-    private ObjectMap<Item, ObjectSet<Tile>> ores;
+    /** Positions of all minable ore tiles on the map by item ID, bucketed by quadrant. Empty buckets are null. */
+    private IntArray[][] ores;
+    /** Amount of minable ore tiles by item ID. */
+    private int[] oreCount;
+    /** Item ID that each tile is indexed under, or -1 if it is not in the ore index. */
+    private byte[] oreIndexed;
     /** Tags all quadrants. */
     private GridBits[] structQuadrants;
-    /** Stores all damaged tile entities by team. */
-    private ObjectSet<Tile>[] damagedTiles = new ObjectSet[Team.all.length];
+    /** Positions of all damaged tiles by team, bucketed by quadrant. Empty buckets are null. */
+    private IntArray[][] damaged;
+    /** Team ID + 1 that each tile is indexed under as damaged, or 0 if it is not in the damaged index. */
+    private byte[] damagedTeam;
+    /** Amount of tile changes in each quadrant since the world was loaded. */
+    private int[] quadrantChanges;
+    /** Damaged tiles found to be stale during the last search. */
+    private IntArray staleDamaged = new IntArray();
+    /** Array of damaged tile entities used for returning and reusing. */
+    private Array<TileEntity> damagedArray = new Array<>();
+    private Team damagedQueryTeam;
+    private final Predicate<Tile> damagedQuery = this::checkDamaged;
     /**All ores available on this map.*/
     private ObjectSet<Item> allOres = new ObjectSet<>();
 
@@ -39,8 +54,6 @@ public class BlockIndexer{
     private ObjectSet<Tile>[][] flagMap = new ObjectSet[Team.all.length][BlockFlag.all.length];
     /** Maps tile positions to their last known tile index data. */
     private IntMap<TileIndex> typeMap = new IntMap<>();
-    /** Empty set used for returning. */
-    private ObjectSet<Tile> emptySet = new ObjectSet<>();
     /** Array used for returning and reusing. */
     private Array<Tile> returnArray = new Array<>();
 
@@ -54,10 +67,21 @@ public class BlockIndexer{
             }
             process(event.tile);
             updateQuadrant(event.tile);
+
+            if(quadrantChanges != null){
+                quadrantChanges[quadrant(event.tile)]++;
+            }
+
+            //the tile was replaced, so its damaged state is no longer valid
+            if(damagedTeam != null){
+                removeDamaged(event.tile);
+                if(event.tile.entity != null && event.tile.entity.damaged()){
+                    notifyTileDamaged(event.tile.entity);
+                }
+            }
         });
 
         Events.on(WorldLoadEvent.class, event -> {
-            damagedTiles = new ObjectSet[Team.all.length];
             flagMap = new ObjectSet[Team.all.length][BlockFlag.all.length];
 
             for(int i = 0; i < flagMap.length; i++){
@@ -68,7 +92,14 @@ public class BlockIndexer{
 
             typeMap.clear();
             allOres.clear();
-            ores = null;
+
+            quadrantChanges = new int[quadWidth() * quadHeight()];
+            damaged = new IntArray[Team.all.length][quadWidth() * quadHeight()];
+            damagedTeam = new byte[world.width() * world.height()];
+            ores = new IntArray[content.items().size][quadWidth() * quadHeight()];
+            oreCount = new int[content.items().size];
+            oreIndexed = new byte[world.width() * world.height()];
+            Arrays.fill(oreIndexed, (byte)-1);
 
             //create bitset for each team type that contains each quadrant
             structQuadrants = new GridBits[Team.all.length];
@@ -95,8 +126,6 @@ public class BlockIndexer{
                     updateQuadrant(world.tile(x * quadrantSize, y * quadrantSize));
                 }
             }
-
-            scanOres();
         });
     }
 
@@ -109,26 +138,79 @@ public class BlockIndexer{
         return allOres.contains(item);
     }
 
-    /** Returns all damaged tiles by team. */
-    public ObjectSet<Tile> getDamaged(Team team){
-        returnArray.clear();
+    /**
+     * Returns a number that changes whenever a tile changes in a quadrant overlapping a circle.
+     * Used to invalidate lists of tiles in range that are cached by blocks.
+     */
+    public int getChanges(float x, float y, float range){
+        if(quadrantChanges == null) return 0;
+
+        int minx = Math.max((int)((x - range) / tilesize / quadrantSize), 0), maxx = Math.min((int)((x + range) / tilesize / quadrantSize), quadWidth() - 1);
+        int miny = Math.max((int)((y - range) / tilesize / quadrantSize), 0), maxy = Math.min((int)((y + range) / tilesize / quadrantSize), quadHeight() - 1);
+        int sum = 0;
 
-        if(damagedTiles[team.ordinal()] == null){
-            damagedTiles[team.ordinal()] = new ObjectSet<>();
+        for(int qx = minx; qx <= maxx; qx++){
+            for(int qy = miny; qy <= maxy; qy++){
+                sum += quadrantChanges[qx + qy * quadWidth()];
+            }
         }
 
-        ObjectSet<Tile> set = damagedTiles[team.ordinal()];
-        for(Tile tile : set){
-            if((tile.entity == null || tile.entity.getTeam() != team || !tile.entity.damaged()) || tile.block() instanceof BuildBlock){
-                returnArray.add(tile);
+        return sum;
+    }
+
+    /** Returns the closest damaged tile of a team in range, or null if there is none. */
+    public TileEntity findDamaged(Team team, float x, float y, float range){
+        if(damaged == null) return null;
+
+        damagedQueryTeam = team;
+        Tile tile = findClosest(damaged[team.ordinal()], x, y, range, damagedQuery);
+        removeStaleDamaged(team);
+        return tile == null ? null : tile.entity;
+    }
+
+    /** Returns the damaged tile of a team in range with the lowest health fraction, or null if there is none. */
+    public TileEntity findMostDamaged(Team team, float x, float y, float range){
+        TileEntity result = null;
+
+        for(TileEntity entity : getDamaged(team, x, y, range)){
+            if(entity.dst(x, y) <= range && (result == null || entity.healthf() < result.healthf())){
+                result = entity;
             }
         }
 
-        for(Tile tile : returnArray){
-            set.remove(tile);
+        return result;
+    }
+
+    /**
+     * Returns all damaged tiles of a team in quadrants overlapping a circle.
+     * Tiles are not checked against the circle itself, which is left to the caller.
+     * Tiles under construction are not included.
+     */
+    public Array<TileEntity> getDamaged(Team team, float x, float y, float range){
+        damagedArray.clear();
+        if(damaged == null) return damagedArray;
+
+        IntArray[] buckets = damaged[team.ordinal()];
+        int minx = Math.max((int)((x - range) / tilesize / quadrantSize), 0), maxx = Math.min((int)((x + range) / tilesize / quadrantSize), quadWidth() - 1);
+        int miny = Math.max((int)((y - range) / tilesize / quadrantSize), 0), maxy = Math.min((int)((y + range) / tilesize / quadrantSize), quadHeight() - 1);
+        damagedQueryTeam = team;
+
+        for(int qx = minx; qx <= maxx; qx++){
+            for(int qy = miny; qy <= maxy; qy++){
+                IntArray bucket = buckets[qx + qy * quadWidth()];
+                if(bucket == null) continue;
+
+                for(int i = 0; i < bucket.size; i++){
+                    Tile tile = world.tile(bucket.get(i));
+                    if(checkDamaged(tile)){
+                        damagedArray.add(tile.entity);
+                    }
+                }
+            }
         }
 
-        return set;
+        removeStaleDamaged(team);
+        return damagedArray;
     }
 
     /** Get all allied blocks with a flag. */
@@ -150,12 +232,21 @@ public class BlockIndexer{
     }
 
     public void notifyTileDamaged(TileEntity entity){
-        if(damagedTiles[entity.getTeam().ordinal()] == null){
-            damagedTiles[entity.getTeam().ordinal()] = new ObjectSet<>();
-        }
+        Tile tile = entity.tile;
+        if(damagedTeam == null || tile.x >= world.width() || tile.y >= world.height()) return;
+
+        int index = tile.x + tile.y * world.width();
+        int team = entity.getTeam().ordinal();
+        if(damagedTeam[index] == team + 1) return;
 
-        ObjectSet<Tile> set = damagedTiles[entity.getTeam().ordinal()];
-        set.add(entity.tile);
+        removeDamaged(tile);
+
+        int quadrant = quadrant(tile);
+        if(damaged[team][quadrant] == null){
+            damaged[team][quadrant] = new IntArray(false, 16);
+        }
+        damaged[team][quadrant].add(tile.pos());
+        damagedTeam[index] = (byte)(team + 1);
     }
 
     public TileEntity findTile(Team team, float x, float y, float range, Predicate<Tile> pred){
@@ -191,32 +282,91 @@ public class BlockIndexer{
         return closest;
     }
 
+    /** @return the amount of minable tiles with this ore. Only specific ore types are indexed. See {@link #scanOres}. */
+    public int getOreCount(Item item){
+        return oreCount == null || item.id >= oreCount.length ? 0 : oreCount[item.id];
+    }
+
     /**
-     * Returns a set of tiles that have ores of the specified type nearby.
-     * While each tile in the set is not guaranteed to have an ore directly on it,
-     * each tile will at least have an ore within {@link #quadrantSize} / 2 blocks of it.
-     * Only specific ore types are scanned. See {@link #scanOres}.
+     * Find the closest minable ore tile relative to a position.
+     * @return a tile with no block on it that drops this item, or null if there is none
      */
-    public ObjectSet<Tile> getOrePositions(Item item){
-        return ores.get(item, emptySet);
+    public Tile findClosestOre(float xp, float yp, Item item){
+        if(getOreCount(item) == 0) return null;
+
+        //the index is updated after the tile change is posted, so check the tile itself
+        return findClosest(ores[item.id], xp, yp, Float.MAX_VALUE, tile -> tile.block() == Blocks.air);
     }
 
-    /** Find the closest ore block relative to a position. */
-    public Tile findClosestOre(float xp, float yp, Item item){
-        Tile tile = Geometry.findClosest(xp, yp, getOrePositions(item));
+    /**
+     * Finds the closest tile of a bucketed position index in range.
+     * Quadrants are searched in rings around the position, until no unsearched quadrant can contain a closer tile.
+     */
+    private Tile findClosest(IntArray[] buckets, float xp, float yp, float range, Predicate<Tile> pred){
+        int qwidth = quadWidth(), qheight = quadHeight();
+        int cx = Mathf.clamp((int)(xp / tilesize / quadrantSize), 0, qwidth - 1);
+        int cy = Mathf.clamp((int)(yp / tilesize / quadrantSize), 0, qheight - 1);
 
-        if(tile == null) return null;
+        Tile closest = null;
+        float cdst = range * range;
 
-        for(int x = Math.max(0, tile.x - quadrantSize / 2); x < tile.x + quadrantSize / 2 && x < world.width(); x++){
-            for(int y = Math.max(0, tile.y - quadrantSize / 2); y < tile.y + quadrantSize / 2 && y < world.height(); y++){
-                Tile res = world.tile(x, y);
-                if(res.block() == Blocks.air && res.drop() == item){
-                    return res;
+        for(int r = 0; r < Math.max(qwidth, qheight); r++){
+            //every tile in this ring or further out is at least this far away; the position may be anywhere in its own quadrant
+            float bound = Math.max((r - 1) * quadrantSize, 0) * tilesize;
+            if(bound > range || (closest != null && cdst <= bound * bound)) break;
+
+            for(int qx = cx - r; qx <= cx + r; qx++){
+                //only visit the border of the ring; inner quadrants were searched already
+                int step = qx == cx - r || qx == cx + r ? 1 : 2 * r;
+
+                for(int qy = cy - r; qy <= cy + r; qy += step){
+                    if(qx < 0 || qy < 0 || qx >= qwidth || qy >= qheight) continue;
+
+                    IntArray bucket = buckets[qx + qy * qwidth];
+                    if(bucket == null) continue;
+
+                    for(int i = 0; i < bucket.size; i++){
+                        Tile tile = world.tile(bucket.get(i));
+                        if(tile == null) continue;
+
+                        float dst = Mathf.dst2(xp, yp, tile.drawx(), tile.drawy());
+                        if(dst < cdst && pred.test(tile)){
+                            closest = tile;
+                            cdst = dst;
+                        }
+                    }
                 }
             }
         }
 
-        return null;
+        return closest;
+    }
+
+    /** @return whether an indexed tile is still a damaged tile of the queried team. If not, it is marked as stale. */
+    private boolean checkDamaged(Tile tile){
+        if(tile.entity == null || tile.getTeam() != damagedQueryTeam || !tile.entity.damaged() || tile.block() instanceof BuildBlock){
+            staleDamaged.add(tile.pos());
+            return false;
+        }
+        return true;
+    }
+
+    private void removeStaleDamaged(Team team){
+        for(int i = 0; i < staleDamaged.size; i++){
+            Tile tile = world.tile(staleDamaged.get(i));
+            if(damagedTeam[tile.x + tile.y * world.width()] == team.ordinal() + 1){
+                removeDamaged(tile);
+            }
+        }
+        staleDamaged.clear();
+    }
+
+    private void removeDamaged(Tile tile){
+        int index = tile.x + tile.y * world.width();
+        if(damagedTeam[index] == 0) return;
+
+        damaged[damagedTeam[index] - 1][quadrant(tile)].removeValue(tile.pos());
+        damagedTeam[index] = 0;
     }
 
     private void process(Tile tile){
@@ -234,36 +384,35 @@ public class BlockIndexer{
             typeMap.put(tile.pos(), new TileIndex(tile.block().flags, tile.getTeam()));
         }
 
-        if(ores == null) return;
+        if(ores != null){
+            updateOre(tile);
+        }
+    }
 
-        int quadrantX = tile.x / quadrantSize;
-        int quadrantY = tile.y / quadrantSize;
-        itemSet.clear();
+    /** Adds a tile to the ore index if it can be mined, or removes it if it can no longer be mined. */
+    private void updateOre(Tile tile){
+        int index = tile.x + tile.y * world.width();
+        Item drop = tile.drop();
+        int id = drop != null && scanOres.contains(drop) && tile.block() == Blocks.air ? drop.id : -1;
 
-        Tile rounded = world.tile(Mathf.clamp(quadrantX * quadrantSize + quadrantSize / 2, 0, world.width() - 1),
-        Mathf.clamp(quadrantY * quadrantSize + quadrantSize / 2, 0, world.height() - 1));
+        if(oreIndexed[index] == id) return;
 
-        //find all items that this quadrant contains
-        for(int x = quadrantX * quadrantSize; x < world.width() && x < (quadrantX + 1) * quadrantSize; x++){
-            for(int y = quadrantY * quadrantSize; y < world.height() && y < (quadrantY + 1) * quadrantSize; y++){
-                Tile result = world.tile(x, y);
-                if(result == null || result.drop() == null || !scanOres.contains(result.drop())) continue;
+        int quadrant = quadrant(tile);
 
-                itemSet.add(result.drop());
-            }
+        if(oreIndexed[index] != -1){
+            ores[oreIndexed[index]][quadrant].removeValue(tile.pos());
+            oreCount[oreIndexed[index]]--;
         }
 
-        //update quadrant at this position
-        for(Item item : scanOres){
-            ObjectSet<Tile> set = ores.get(item);
-
-            //update quadrant status depending on whether the item is in it
-            if(!itemSet.contains(item)){
-                set.remove(rounded);
-            }else{
-                set.add(rounded);
+        if(id != -1){
+            if(ores[id][quadrant] == null){
+                ores[id][quadrant] = new IntArray(false, 16);
             }
+            ores[id][quadrant].add(tile.pos());
+            oreCount[id]++;
         }
+
+        oreIndexed[index] = (byte)id;
     }
 
     private void updateQuadrant(Tile tile){
@@ -303,6 +452,10 @@ public class BlockIndexer{
         return structQuadrants[team.ordinal()].get(quadrantX, quadrantY);
     }
 
+    private int quadrant(Tile tile){
+        return tile.x / quadrantSize + tile.y / quadrantSize * quadWidth();
+    }
+
     private int quadWidth(){
         return Mathf.ceil(world.width() / (float)quadrantSize);
     }
@@ -311,32 +464,6 @@ public class BlockIndexer{
         return Mathf.ceil(world.height() / (float)quadrantSize);
     }
 
-    private void scanOres(){
-        ores = new ObjectMap<>();
-
-        //initialize ore map with empty sets
-        for(Item item : scanOres){
-            ores.put(item, new ObjectSet<>());
-        }
-
-        for(int x = 0; x < world.width(); x++){
-            for(int y = 0; y < world.height(); y++){
-                int qx = (x / quadrantSize);
-                int qy = (y / quadrantSize);
-
-                Tile tile = world.tile(x, y);
-
-                //add position of quadrant to list when an ore is found
-                if(tile.drop() != null && scanOres.contains(tile.drop()) && tile.block() == Blocks.air){
-                    ores.get(tile.drop()).add(world.tile(
-                    //make sure to clamp quadrant middle position, since it might go off bounds
-                    Mathf.clamp(qx * quadrantSize + quadrantSize / 2, 0, world.width() - 1),
-                    Mathf.clamp(qy * quadrantSize + quadrantSize / 2, 0, world.height() - 1)));
-                }
-            }
-        }
-    }
-
     private class TileIndex{
         public final EnumSet<BlockFlag> flags;
         public final Team team;
@@ -0,0 +1,237 @@
+package io.anuke.mindustry.ai;
+
+import io.anuke.arc.collection.*;
+import io.anuke.arc.function.*;
+import io.anuke.arc.math.*;
+import io.anuke.arc.math.geom.*;
+import io.anuke.mindustry.entities.type.*;
+import io.anuke.mindustry.game.*;
+
+import java.util.Arrays;
+
+import static io.anuke.mindustry.Vars.*;
+
+/**
+ * Coarse grid of all units, bucketed by team and rebuilt once per tick by the logic.
+ * Turrets query it for their nearest enemies, instead of searching the unit group tree of every enemy team.
+ */
+public class ThreatIndex{
+    public static final int ground = 1, flying = 2, boss = 4;
+    /** Matches every unit. */
+    public static final int any = ground | flying;
+
+    /** Size of a grid cell, in world units. */
+    private static final float cellSize = 8 * tilesize;
+
+    private int width, height;
+    /** Per team: index of the first unit of each cell, followed by the total amount of units. Null while the team has no units. */
+    private int[][] cellStart = new int[Team.all.length][];
+    /** Per team: units sorted by cell, and their flags. */
+    private Unit[][] units = new Unit[Team.all.length][];
+    private byte[][] flags = new byte[Team.all.length][];
+    private int[] cursor = {};
+
+    private float[] nearestDst = {};
+
+    /** Rebuilds the grid from the current unit positions. */
+    public void update(){
+        width = Math.max(Mathf.ceil(world.width() * tilesize / cellSize), 1);
+        height = Math.max(Mathf.ceil(world.height() * tilesize / cellSize), 1);
+        int cells = width * height;
+
+        if(cursor.length != cells){
+            cursor = new int[cells];
+        }
+
+        for(Team team : Team.all){
+            int t = team.ordinal();
+            int total = unitGroups[t].size();
+            for(Player player : playerGroup.all()){
+                if(player.getTeam() == team) total++;
+            }
+
+            if(total == 0){
+                cellStart[t] = null;
+                continue;
+            }
+
+            if(cellStart[t] == null || cellStart[t].length != cells + 1){
+                cellStart[t] = new int[cells + 1];
+            }
+            if(units[t] == null || units[t].length < total){
+                units[t] = new Unit[Mathf.nextPowerOfTwo(total)];
+                flags[t] = new byte[units[t].length];
+            }
+
+            //counting sort: count units per cell, then place them at the running offset of their cell
+            int[] start = cellStart[t];
+            Arrays.fill(start, 0);
+
+            for(BaseUnit unit : unitGroups[t].all()){
+                start[cell(unit) + 1]++;
+            }
+            for(Player player : playerGroup.all()){
+                if(player.getTeam() == team) start[cell(player) + 1]++;
+            }
+
+            for(int i = 0; i < cells; i++){
+                start[i + 1] += start[i];
+            }
+            System.arraycopy(start, 0, cursor, 0, cells);
+
+            for(BaseUnit unit : unitGroups[t].all()){
+                place(t, unit);
+            }
+            for(Player player : playerGroup.all()){
+                if(player.getTeam() == team) place(t, player);
+            }
+
+            //clear references to units from previous ticks
+            Arrays.fill(units[t], total, units[t].length, null);
+        }
+    }
+
+    /**
+     * Collects all enemies of a team in cells overlapping a rectangle.
+     * Units are not checked against the rectangle itself, which is left to the caller.
+     * @param out cleared, then filled with the found units
+     */
+    public void nearby(Team team, Rectangle rect, Array<Unit> out){
+        out.clear();
+
+        for(Team enemy : state.teams.enemiesOf(team)){
+            int t = enemy.ordinal();
+            if(cellStart[t] == null) continue;
+
+            int[] start = cellStart[t];
+            int minx = clampx(rect.x) - 1, maxx = clampx(rect.x + rect.width) + 1;
+            int miny = clampy(rect.y) - 1, maxy = clampy(rect.y + rect.height) + 1;
+
+            for(int cy = Math.max(miny, 0); cy <= Math.min(maxy, height - 1); cy++){
+                for(int cx = Math.max(minx, 0); cx <= Math.min(maxx, width - 1); cx++){
+                    int cell = cx + cy * width;
+
+                    for(int i = start[cell]; i < start[cell + 1]; i++){
+                        if(!units[t][i].isDead()) out.add(units[t][i]);
+                    }
+                }
+            }
+        }
+    }
+
+    /** Returns the closest enemy of a team in range, with any of the specified flags. */
+    public Unit closest(Team team, float x, float y, float range, int mask){
+        return closest(team, x, y, range, mask, null);
+    }
+
+    /**
+     * Returns the closest living enemy of a team in range, with any of the specified flags.
+     * @param mask a combination of {@link #ground}, {@link #flying} and {@link #boss}
+     * @param predicate extra filter, may be null
+     */
+    public Unit closest(Team team, float x, float y, float range, int mask, Predicate<Unit> predicate){
+        if(team == Team.derelict) return null;
+
+        Unit result = null;
+        float cdist = range * range;
+
+        for(Team enemy : state.teams.enemiesOf(team)){
+            int t = enemy.ordinal();
+            if(cellStart[t] == null) continue;
+
+            int[] start = cellStart[t];
+            //units may have moved since the last rebuild, so look at one extra cell in each direction
+            int minx = clampx(x - range) - 1, maxx = clampx(x + range) + 1;
+            int miny = clampy(y - range) - 1, maxy = clampy(y + range) + 1;
+
+            for(int cy = Math.max(miny, 0); cy <= Math.min(maxy, height - 1); cy++){
+                for(int cx = Math.max(minx, 0); cx <= Math.min(maxx, width - 1); cx++){
+                    int cell = cx + cy * width;
+
+                    for(int i = start[cell]; i < start[cell + 1]; i++){
+                        Unit unit = units[t][i];
+                        if((flags[t][i] & mask) == 0 || unit.isDead() || (predicate != null && !predicate.test(unit))) continue;
+
+                        float dst2 = Mathf.dst2(unit.x, unit.y, x, y);
+                        if(dst2 < cdist){
+                            result = unit;
+                            cdist = dst2;
+                        }
+                    }
+                }
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Finds up to out.length living enemies of a team in range, with any of the specified flags.
+     * @param out filled with the found units, closest first
+     * @return the amount of units found
+     */
+    public int nearest(Team team, float x, float y, float range, int mask, Predicate<Unit> predicate, Unit[] out){
+        if(team == Team.derelict || out.length == 0) return 0;
+
+        if(nearestDst.length < out.length){
+            nearestDst = new float[out.length];
+        }
+
+        int found = 0;
+        float range2 = range * range;
+
+        for(Team enemy : state.teams.enemiesOf(team)){
+            int t = enemy.ordinal();
+            if(cellStart[t] == null) continue;
+
+            int[] start = cellStart[t];
+            int minx = clampx(x - range) - 1, maxx = clampx(x + range) + 1;
+            int miny = clampy(y - range) - 1, maxy = clampy(y + range) + 1;
+
+            for(int cy = Math.max(miny, 0); cy <= Math.min(maxy, height - 1); cy++){
+                for(int cx = Math.max(minx, 0); cx <= Math.min(maxx, width - 1); cx++){
+                    int cell = cx + cy * width;
+
+                    for(int i = start[cell]; i < start[cell + 1]; i++){
+                        Unit unit = units[t][i];
+                        if((flags[t][i] & mask) == 0 || unit.isDead() || (predicate != null && !predicate.test(unit))) continue;
+
+                        float dst2 = Mathf.dst2(unit.x, unit.y, x, y);
+                        if(dst2 >= range2 || (found == out.length && dst2 >= nearestDst[found - 1])) continue;
+
+                        //insertion into the sorted output, dropping the farthest unit when full
+                        int index = Math.min(found, out.length - 1);
+                        while(index > 0 && nearestDst[index - 1] > dst2){
+                            out[index] = out[index - 1];
+                            nearestDst[index] = nearestDst[index - 1];
+                            index--;
+                        }
+                        out[index] = unit;
+                        nearestDst[index] = dst2;
+                        found = Math.min(found + 1, out.length);
+                    }
+                }
+            }
+        }
+
+        return found;
+    }
+
+    private void place(int team, Unit unit){
+        int index = cursor[cell(unit)]++;
+        units[team][index] = unit;
+        flags[team][index] = (byte)((unit.isFlying() ? flying : ground) | (unit instanceof BaseUnit && ((BaseUnit)unit).isBoss() ? boss : 0));
+    }
+
+    private int cell(Unit unit){
+        return clampx(unit.x) + clampy(unit.y) * width;
+    }
+
+    private int clampx(float x){
+        return Mathf.clamp((int)(x / cellSize), 0, width - 1);
+    }
+
+    private int clampy(float y){
+        return Mathf.clamp((int)(y / cellSize), 0, height - 1);
+    }
+}
@@ -1,5 +1,7 @@
 package io.anuke.mindustry.ai;
 
+import io.anuke.annotations.Annotations.Loc;
+import io.anuke.annotations.Annotations.Remote;
 import io.anuke.arc.Events;
 import io.anuke.arc.collection.Array;
 import io.anuke.arc.function.PositionConsumer;
@@ -11,21 +13,43 @@ import io.anuke.mindustry.content.Blocks;
 import io.anuke.mindustry.content.Fx;
 import io.anuke.mindustry.entities.Damage;
 import io.anuke.mindustry.entities.Effects;
+import io.anuke.mindustry.entities.EntityGroup;
 import io.anuke.mindustry.entities.type.BaseUnit;
 import io.anuke.mindustry.game.EventType.WorldLoadEvent;
 import io.anuke.mindustry.game.SpawnGroup;
+import io.anuke.mindustry.gen.Call;
 import io.anuke.mindustry.net.Net;
+import io.anuke.mindustry.type.ContentType;
+import io.anuke.mindustry.type.UnitType;
 import io.anuke.mindustry.world.Tile;
 
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
 import static io.anuke.mindustry.Vars.*;
 
 public class WaveSpawner{
     private static final float margin = 40f, coreMargin = tilesize * 3; //how far away from the edge flying units spawn
+    /** Duration of the spawn effect, after which a ground unit is added. */
+    private static final float spawnDuration = 30f;
+    /** Maximum amount of ground spawns described in a single wave message to clients. */
+    private static final int maxSyncedSpawns = 300;
+    /** Size of a single ground spawn in a wave message. */
+    private static final int spawnBytes = 7;
 
     private Array<FlyerSpawn> flySpawns = new Array<>();
     private Array<Tile> groundSpawns = new Array<>();
     private boolean spawning = false;
 
+    /** Ground spawns waiting for their effect, with the time it starts. Units are null for spawns sent by the server. */
+    private int pending;
+    private BaseUnit[] pendingUnits = new BaseUnit[64];
+    private UnitType[] pendingTypes = new UnitType[64];
+    private float[] pendingX = new float[64], pendingY = new float[64], pendingTime = new float[64];
+    private boolean[] pendingShown = new boolean[64];
+    private boolean flushing;
+    private final Runnable flush = this::flushSpawns;
+
     public WaveSpawner(){
         Events.on(WorldLoadEvent.class, e -> reset());
     }
@@ -46,6 +70,9 @@ public class WaveSpawner{
     public void spawnEnemies(){
         spawning = true;
 
+        EntityGroup<BaseUnit> units = unitGroups[waveTeam.ordinal()];
+        int start = pending;
+
         for(SpawnGroup group : state.rules.spawns){
             int spawned = group.getUnitsSpawned(state.wave - 1);
 
@@ -53,6 +80,7 @@ public class WaveSpawner{
                 float spread = margin / 1.5f;
 
                 eachFlyerSpawn((spawnX, spawnY) -> {
+                    units.reserve(spawned);
                     for(int i = 0; i < spawned; i++){
                         BaseUnit unit = group.createUnit(waveTeam);
                         unit.set(spawnX + Mathf.range(spread), spawnY + Mathf.range(spread));
@@ -70,12 +98,18 @@ public class WaveSpawner{
                         BaseUnit unit = group.createUnit(waveTeam);
                         unit.set(spawnX + Tmp.v1.x, spawnY + Tmp.v1.y);
 
-                        Time.run(Math.min(i * 5, 60 * 2), () -> spawnEffect(unit));
+                        queueSpawn(unit, group.type, unit.x, unit.y, Math.min(i * 5, 60 * 2));
                     }
                 });
             }
         }
 
+        units.reserve(pending - start);
+
+        if(Net.server() && pending > start){
+            Call.onWaveSpawn(writeSpawns(start));
+        }
+
         eachGroundSpawn((spawnX, spawnY, doShockwave) -> {
             if(doShockwave){
                 Time.run(20f, () -> Effects.effect(Fx.spawnShockwave, spawnX, spawnY, state.rules.dropZoneRadius));
@@ -86,6 +120,103 @@ public class WaveSpawner{
         Time.runTask(121f, () -> spawning = false);
     }
 
+    /**
+     * Shows spawn effects of ground units that are due, and adds the units whose effect has finished.
+     * Runs as a single repeating timer task while there are pending spawns.
+     */
+    private void flushSpawns(){
+        flushing = false;
+
+        int kept = 0;
+        for(int i = 0; i < pending; i++){
+            float elapsed = Time.time() - pendingTime[i];
+
+            if(!pendingShown[i] && elapsed >= 0f){
+                Effects.effect(Fx.unitSpawn, pendingX[i], pendingY[i], 0f, pendingUnits[i] != null ? pendingUnits[i] : pendingTypes[i]);
+                pendingShown[i] = true;
+            }
+
+            if(elapsed >= spawnDuration){
+                if(pendingUnits[i] != null){
+                    pendingUnits[i].add();
+                }
+                Effects.effect(Fx.spawn, pendingX[i], pendingY[i]);
+                continue;
+            }
+
+            if(kept != i){
+                pendingUnits[kept] = pendingUnits[i];
+                pendingTypes[kept] = pendingTypes[i];
+                pendingX[kept] = pendingX[i];
+                pendingY[kept] = pendingY[i];
+                pendingTime[kept] = pendingTime[i];
+                pendingShown[kept] = pendingShown[i];
+            }
+            kept++;
+        }
+
+        Arrays.fill(pendingUnits, kept, pending, null);
+        Arrays.fill(pendingTypes, kept, pending, null);
+        pending = kept;
+        scheduleFlush();
+    }
+
+    private void scheduleFlush(){
+        if(pending > 0 && !flushing){
+            flushing = true;
+            Time.run(1f, flush);
+        }
+    }
+
+    /** Plays the spawn effects of a wave spawned by the server. */
+    @Remote(called = Loc.server)
+    public static void onWaveSpawn(byte[] spawns){
+        if(!Net.client()) return;
+
+        ByteBuffer buffer = ByteBuffer.wrap(spawns);
+        while(buffer.remaining() >= spawnBytes){
+            UnitType type = content.getByID(ContentType.unit, buffer.getShort());
+            float x = buffer.getShort(), y = buffer.getShort();
+            float delay = buffer.get() * 5f;
+            world.spawner.queueSpawn(null, type, x, y, delay);
+        }
+    }
+
+    /** Writes ground spawns queued after an index: unit type, position and effect delay. */
+    private byte[] writeSpawns(int start){
+        int amount = Math.min(pending - start, maxSyncedSpawns);
+        ByteBuffer buffer = ByteBuffer.allocate(amount * spawnBytes);
+
+        for(int i = start; i < start + amount; i++){
+            buffer.putShort(pendingTypes[i].id);
+            buffer.putShort((short)pendingX[i]);
+            buffer.putShort((short)pendingY[i]);
+            buffer.put((byte)((pendingTime[i] - Time.time()) / 5f));
+        }
+        return buffer.array();
+    }
+
+    private void queueSpawn(BaseUnit unit, UnitType type, float x, float y, float delay){
+        if(pending == pendingX.length){
+            int size = pending * 2;
+            pendingUnits = Arrays.copyOf(pendingUnits, size);
+            pendingTypes = Arrays.copyOf(pendingTypes, size);
+            pendingX = Arrays.copyOf(pendingX, size);
+            pendingY = Arrays.copyOf(pendingY, size);
+            pendingTime = Arrays.copyOf(pendingTime, size);
+            pendingShown = Arrays.copyOf(pendingShown, size);
+        }
+
+        pendingUnits[pending] = unit;
+        pendingTypes[pending] = type;
+        pendingX[pending] = x;
+        pendingY[pending] = y;
+        pendingTime[pending] = Time.time() + delay;
+        pendingShown[pending] = false;
+        pending++;
+        scheduleFlush();
+    }
+
     private void eachGroundSpawn(SpawnConsumer cons){
         for(Tile spawn : groundSpawns){
             cons.accept(spawn.worldx(), spawn.worldy(), true);
@@ -120,6 +251,10 @@ public class WaveSpawner{
     }
 
     private void reset(){
+        Arrays.fill(pendingUnits, 0, pending, null);
+        Arrays.fill(pendingTypes, 0, pending, null);
+        pending = 0;
+        flushing = false;
 
         flySpawns.clear();
         groundSpawns.clear();
@@ -142,14 +277,6 @@ public class WaveSpawner{
         flySpawns.add(fspawn);
     }
 
-    private void spawnEffect(BaseUnit unit){
-        Effects.effect(Fx.unitSpawn, unit.x, unit.y, 0f, unit);
-        Time.run(30f, () -> {
-            unit.add();
-            Effects.effect(Fx.spawn, unit);
-        });
-    }
-
     private interface SpawnConsumer{
         void accept(float x, float y, boolean shockwave);
     }
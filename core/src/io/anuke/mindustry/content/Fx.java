@@ -14,6 +14,7 @@ import io.anuke.mindustry.graphics.Pal;
 import io.anuke.mindustry.graphics.Drawf;
 import io.anuke.mindustry.type.Item;
 import io.anuke.mindustry.type.Item.Icon;
+import io.anuke.mindustry.type.UnitType;
 
 import static io.anuke.mindustry.Vars.tilesize;
 
@@ -40,15 +41,16 @@ public class Fx implements ContentList{
         none = new Effect(0, 0f, e -> {});
 
         unitSpawn = new Effect(30f, e -> {
-            if(!(e.data instanceof BaseUnit)) return;
+            //units spawned by the server are only described by their type
+            TextureRegion region = e.data instanceof BaseUnit ? ((BaseUnit)e.data).getIconRegion() : e.data instanceof UnitType ? ((UnitType)e.data).iconRegion : null;
+            if(region == null) return;
 
             Draw.alpha(e.fin());
 
             float scl = 1f + e.fout() * 2f;
 
-            BaseUnit unit = (BaseUnit)e.data;
-            Draw.rect(unit.getIconRegion(), e.x, e.y,
-            unit.getIconRegion().getWidth() * Draw.scl * scl, unit.getIconRegion().getWidth() * Draw.scl * scl, 180f);
+            Draw.rect(region, e.x, e.y,
+            region.getWidth() * Draw.scl * scl, region.getWidth() * Draw.scl * scl, 180f);
 
             Draw.reset();
         });
@@ -200,15 +200,24 @@ public class Logic implements ApplicationListener{
                 }
 
                 if(!state.isEditor()){
+                    world.scheduler.update();
+
                     for(EntityGroup group : unitGroups){
                         Entities.update(group);
                     }
 
+                    UnitSeparation.update();
+                    world.threats.update();
+
                     Entities.update(puddleGroup);
                     Entities.update(shieldGroup);
                     Entities.update(bulletGroup);
                     Entities.update(tileGroup);
                     Entities.update(fireGroup);
+
+                    if(!Net.client()){
+                        world.environment.update();
+                    }
                 }else{
                     for(EntityGroup<?> group : unitGroups){
                         group.updateEvents();
@@ -225,6 +234,8 @@ public class Logic implements ApplicationListener{
                 }
 
                 if(!state.isEditor()){
+                    BuildBlock.updateSites();
+                    ShieldAbsorption.update();
 
                     for(EntityGroup group : unitGroups){
                         if(group.isEmpty()) continue;
@@ -232,9 +243,12 @@ public class Logic implements ApplicationListener{
                     }
 
                     collisions.collideGroups(bulletGroup, playerGroup);
+
+                    Damage.update();
                 }
 
                 world.pathfinder.update();
+                state.stats.flow.update();
             }
 
             if(!Net.client() && !world.isInvalidMap() && !state.isEditor()){
@@ -3,13 +3,14 @@ package io.anuke.mindustry.core;
 import io.anuke.annotations.Annotations.*;
 import io.anuke.arc.ApplicationListener;
 import io.anuke.arc.Core;
-import io.anuke.arc.collection.IntSet;
+import io.anuke.arc.collection.*;
 import io.anuke.arc.graphics.Color;
 import io.anuke.arc.math.RandomXS128;
 import io.anuke.arc.util.*;
 import io.anuke.arc.util.io.ReusableByteInStream;
 import io.anuke.arc.util.serialization.Base64Coder;
 import io.anuke.mindustry.Vars;
+import io.anuke.mindustry.content.Blocks;
 import io.anuke.mindustry.core.GameState.State;
 import io.anuke.mindustry.entities.Entities;
 import io.anuke.mindustry.entities.EntityGroup;
@@ -31,6 +32,7 @@ import io.anuke.mindustry.world.modules.ItemModule;
 
 import java.io.DataInputStream;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.zip.InflaterInputStream;
 
 import static io.anuke.mindustry.Vars.*;
@@ -51,6 +53,14 @@ public class NetClient implements ApplicationListener{
     private float timeoutTime = 0f;
     /** Last sent client snapshot ID. */
     private int lastSent;
+    /** ID of the last state snapshot applied. */
+    private int lastSnapshot = -1;
+    /** Snapshots recieved from the server, which are acknowledged once all their parts have arrived. */
+    private SnapshotTracker snapshots = new SnapshotTracker();
+    /** ID of the last build plan sent, and the requests it contained. */
+    private int lastPlan;
+    private ObjectSet<BuildRequest> sentPlan = new ObjectSet<>();
+    private ObjectSet<BuildRequest> queueSet = new ObjectSet<>();
 
     /** List of entities that were removed, and need not be added while syncing. */
     private IntSet removed = new IntSet();
@@ -223,8 +233,29 @@ public class NetClient implements ApplicationListener{
         playerGroup.removeByID(playerid);
     }
 
+    /** Removes units that left the area this client is sent units in. Unlike deaths, they may be sent again later. */
+    @Remote(variants = Variant.one)
+    public static void onEntityDespawn(byte[] entities){
+        ByteBuffer buffer = ByteBuffer.wrap(entities);
+
+        while(buffer.remaining() >= 5){
+            int id = buffer.getInt();
+            EntityGroup group = Entities.getGroup(buffer.get());
+
+            //units that already died here keep their mark, so late snapshots do not bring them back
+            if(group != null && group.getByID(id) != null){
+                group.removeByID(id);
+                netClient.snapshots.forget(id);
+                //the remove listener marks it as removed, but unlike a death, it may be sent again
+                netClient.removed.remove(id);
+            }
+        }
+    }
+
     @Remote(variants = Variant.one, priority = PacketPriority.low, unreliable = true)
-    public static void onEntitySnapshot(byte groupID, short amount, short dataLen, byte[] data){
+    public static void onEntitySnapshot(int snapshotID, byte groupID, short amount, short dataLen, byte[] data){
+        netClient.snapshots.chunkRecieved(snapshotID);
+
         try{
             netClient.byteStream.setBytes(Net.decompressSnapshot(data, dataLen));
             DataInputStream input = netClient.dataStream;
@@ -236,6 +267,12 @@ public class NetClient implements ApplicationListener{
                 int id = input.readInt();
                 byte typeID = input.readByte();
 
+                //snapshots may arrive out of order over UDP; states of entities a newer one carried are read and dropped
+                if(!netClient.snapshots.entityRecieved(id, snapshotID)){
+                    ((SyncTrait)content.<TypeID>getByID(ContentType.typeid, typeID).constructor.get()).read(input);
+                    continue;
+                }
+
                 SyncTrait entity = group == null ? null : (SyncTrait)group.getByID(id);
                 boolean add = false, created = false;
 
@@ -275,9 +312,13 @@ public class NetClient implements ApplicationListener{
         }
     }
 
-    @Remote(variants = Variant.one, priority = PacketPriority.low, unreliable = true)
-    public static void onStateSnapshot(float waveTime, int wave, int enemies, short coreDataLen, byte[] coreData){
+    @Remote(variants = Variant.one, priority = PacketPriority.low, unreliable = true, sendPriority = SendPriority.players)
+    public static void onStateSnapshot(int snapshotID, short chunks, float waveTime, int wave, int enemies, short coreDataLen, byte[] coreData){
+        netClient.snapshots.stateRecieved(snapshotID, chunks);
+        if(snapshotID < netClient.lastSnapshot) return;
+
         try{
+            netClient.lastSnapshot = snapshotID;
             state.wavetime = waveTime;
             state.wave = wave;
             state.enemies = enemies;
@@ -338,6 +379,7 @@ public class NetClient implements ApplicationListener{
     }
 
     private void reset(){
+        sentPlan.clear();
         Net.setClientLoaded(false);
         removed.clear();
         timeoutTime = 0f;
@@ -345,6 +387,8 @@ public class NetClient implements ApplicationListener{
         quietReset = false;
         quiet = false;
         lastSent = 0;
+        lastSnapshot = -1;
+        snapshots.reset();
 
         Entities.clear();
         ui.chatfrag.clearMessages();
@@ -385,18 +429,29 @@ public class NetClient implements ApplicationListener{
             BuildRequest[] requests;
             //limit to 10 to prevent buffer overflows
             int usedRequests = Math.min(player.buildQueue().size, 10);
+            int planID = 0;
+
+            //longer queues are sent once as a build plan, and only sent again when they change
+            if(player.buildQueue().size > usedRequests){
+                if(planChanged()){
+                    sendPlan();
+                }
+                planID = lastPlan;
+            }else{
+                sentPlan.clear();
+            }
 
             requests = new BuildRequest[usedRequests];
             for(int i = 0; i < usedRequests; i++){
                 requests[i] = player.buildQueue().get(i);
             }
 
-            Call.onClientShapshot(lastSent++, player.x, player.y,
+            Call.onClientShapshot(lastSent++, snapshots.acknowledged(), snapshots.incomplete(), player.x, player.y,
             player.pointerX, player.pointerY, player.rotation, player.baseRotation,
             player.velocity().x, player.velocity().y,
             player.getMineTile(),
             player.isBoosting, player.isShooting, ui.chatfrag.chatOpen(),
-            requests,
+            requests, planID,
             Core.camera.position.x, Core.camera.position.y,
             Core.camera.width * viewScale, Core.camera.height * viewScale);
         }
@@ -406,6 +461,38 @@ public class NetClient implements ApplicationListener{
         }
     }
 
+    /** @return whether requests were added to the build queue since the last plan was sent, or removed without being done. */
+    boolean planChanged(){
+        queueSet.clear();
+        for(BuildRequest request : player.buildQueue()){
+            if(!sentPlan.contains(request)) return true;
+            queueSet.add(request);
+        }
+
+        for(BuildRequest request : sentPlan){
+            if(!queueSet.contains(request) && !isDone(request)) return true;
+        }
+
+        return false;
+    }
+
+    void sendPlan(){
+        lastPlan++;
+        sentPlan.clear();
+        for(BuildRequest request : player.buildQueue()){
+            sentPlan.add(request);
+        }
+
+        for(byte[] chunk : BuildPlan.encode(player.buildQueue())){
+            Call.onBuildPlan(lastPlan, chunk);
+        }
+    }
+
+    boolean isDone(BuildRequest request){
+        Tile tile = world.tile(request.x, request.y);
+        return tile == null || (request.breaking ? tile.block() == Blocks.air : tile.block() == request.block && (!request.block.rotate || tile.rotation() == request.rotation));
+    }
+
     String getUsid(String ip){
         if(Core.settings.getString("usid-" + ip, null) != null){
             return Core.settings.getString("usid-" + ip, null);
@@ -2,10 +2,11 @@ package io.anuke.mindustry.core;
 
 import io.anuke.annotations.Annotations.Loc;
 import io.anuke.annotations.Annotations.Remote;
+import io.anuke.annotations.Annotations.SendPriority;
 import io.anuke.arc.ApplicationListener;
 import io.anuke.arc.Events;
-import io.anuke.arc.collection.IntMap;
-import io.anuke.arc.collection.ObjectSet;
+import io.anuke.arc.collection.*;
+import io.anuke.arc.function.Consumer;
 import io.anuke.arc.graphics.Color;
 import io.anuke.arc.graphics.Colors;
 import io.anuke.arc.math.Mathf;
@@ -20,6 +21,7 @@ import io.anuke.mindustry.entities.EntityGroup;
 import io.anuke.mindustry.entities.traits.BuilderTrait.BuildRequest;
 import io.anuke.mindustry.entities.traits.Entity;
 import io.anuke.mindustry.entities.traits.SyncTrait;
+import io.anuke.mindustry.entities.type.BaseUnit;
 import io.anuke.mindustry.entities.type.Player;
 import io.anuke.mindustry.game.EventType.WorldLoadEvent;
 import io.anuke.mindustry.game.Team;
@@ -40,9 +42,13 @@ import static io.anuke.mindustry.Vars.*;
 
 public class NetServer implements ApplicationListener{
     public final static int maxSnapshotSize = 430;
+    /** Maximum amount of build plan requests validated per tick, across all players. */
+    private final static int maxPlanValidations = 400;
     private final static float serverSyncTime = 12, kickDuration = 30 * 1000;
     private final static Vector2 vector = new Vector2();
     private final static Rectangle viewport = new Rectangle();
+    /** Maximum amount of units despawned in one packet. */
+    private final static int maxDespawns = 700;
     /** If a player goes away of their server-side coordinates by this distance, they get teleported back. */
     private final static float correctDist = 16f;
 
@@ -59,6 +65,23 @@ public class NetServer implements ApplicationListener{
     private ReusableByteOutStream syncStream = new ReusableByteOutStream();
     /** Data stream for writing player sync data to. */
     private DataOutputStream dataStream = new DataOutputStream(syncStream);
+    /** Entity states and compressed chunks shared by all players synced in the same tick. */
+    private SnapshotCache snapshotCache = new SnapshotCache();
+    /** Units near the viewport of the player a snapshot is being written for. */
+    private Array<Entity> interestEntities = new Array<>();
+    private Consumer<Entity> addInterest = interestEntities::add;
+    /** IDs and group IDs of units to despawn on the client a snapshot is being written for. */
+    private IntArray despawns = new IntArray();
+    /** Amount of entity chunks sent in the snapshot being written. */
+    private int chunks;
+
+    /** Compressed snapshot bytes sent to all players in the current and the last second. */
+    private int snapshotBytes, lastSnapshotBytes;
+    private long lastBandwidthTime;
+    /** Timer for writing snapshots. Shared by all players, so that the snapshot cache is shared as well. */
+    private Interval syncTimer = new Interval();
+    /** Index of the player whose build plan is validated first next tick. */
+    private int planOffset;
 
     public NetServer(){
         Events.on(WorldLoadEvent.class, event -> {
@@ -214,6 +237,7 @@ public class NetServer implements ApplicationListener{
         ByteArrayOutputStream stream = new ByteArrayOutputStream();
         DeflaterOutputStream def = new FastDeflaterOutputStream(stream);
         NetworkIO.writeWorld(player, def);
+        player.con.baseline.clear();
         WorldStream data = new WorldStream();
         data.stream = new ByteArrayInputStream(stream.toByteArray());
         Net.sendStream(clientID, data);
@@ -249,14 +273,14 @@ public class NetServer implements ApplicationListener{
     @Remote(targets = Loc.client, unreliable = true)
     public static void onClientShapshot(
         Player player,
-        int snapshotID,
+        int snapshotID, int lastSnapshot, int incompleteSnapshots,
         float x, float y,
         float pointerX, float pointerY,
         float rotation, float baseRotation,
         float xVelocity, float yVelocity,
         Tile mining,
         boolean boosting, boolean shooting, boolean chatting,
-        BuildRequest[] requests,
+        BuildRequest[] requests, int planID,
         float viewX, float viewY, float viewWidth, float viewHeight
     ){
         NetConnection connection = player.con;
@@ -266,6 +290,7 @@ public class NetServer implements ApplicationListener{
 
         if(connection.lastRecievedClientTime == 0) connection.lastRecievedClientTime = Time.millis() - 16;
 
+        connection.baseline.acknowledge(lastSnapshot, incompleteSnapshots);
         connection.viewX = viewX;
         connection.viewY = viewY;
         connection.viewWidth = viewWidth;
@@ -282,18 +307,26 @@ public class NetServer implements ApplicationListener{
         player.isTyping = chatting;
         player.isBoosting = boosting;
         player.isShooting = shooting;
-        player.buildQueue().clear();
-        for(BuildRequest req : requests){
-            if(req == null) continue;
-            Tile tile = world.tile(req.x, req.y);
-            if(tile == null) continue;
-            //auto-skip done requests
-            if(req.breaking && tile.block() == Blocks.air){
-                continue;
-            }else if(!req.breaking && tile.block() == req.block && (!req.block.rotate || tile.rotation() == req.rotation)){
-                continue;
+
+        if(planID == 0){
+            connection.buildPlan = null;
+        }
+
+        //once the build plan of this snapshot has been recieved, it is the source of the build queue instead
+        if(planID == 0 || planID != connection.buildPlanID){
+            player.buildQueue().clear();
+            for(BuildRequest req : requests){
+                if(req == null) continue;
+                Tile tile = world.tile(req.x, req.y);
+                if(tile == null) continue;
+                //auto-skip done requests
+                if(req.breaking && tile.block() == Blocks.air){
+                    continue;
+                }else if(!req.breaking && tile.block() == req.block && (!req.block.rotate || tile.rotation() == req.rotation)){
+                    continue;
+                }
+                player.buildQueue().addLast(req);
             }
-            player.buildQueue().addLast(req);
         }
 
         vector.set(x - player.getInterpolator().target.x, y - player.getInterpolator().target.y);
@@ -330,6 +363,26 @@ public class NetServer implements ApplicationListener{
         connection.lastRecievedClientTime = Time.millis();
     }
 
+    /**
+     * Recieves a chunk of a build plan, which replaces the player's build queue once the server starts validating it.
+     * Chunks of a new plan reset the previous one.
+     */
+    @Remote(targets = Loc.client)
+    public static void onBuildPlan(Player player, int id, byte[] chunk){
+        NetConnection connection = player.con;
+        if(connection == null || id < connection.buildPlanID) return;
+
+        if(id != connection.buildPlanID){
+            connection.buildPlanID = id;
+            connection.buildPlan = new BuildPlan(id);
+            player.buildQueue().clear();
+        }
+
+        if(connection.buildPlan != null){
+            connection.buildPlan.add(chunk);
+        }
+    }
+
     @Remote(targets = Loc.client, called = Loc.server)
     public static void onAdminRequest(Player player, Player other, AdminAction action){
 
@@ -403,6 +456,39 @@ public class NetServer implements ApplicationListener{
 
         if(!state.is(State.menu) && Net.server()){
             sync();
+            validateBuildPlans();
+
+            for(NetConnection connection : Net.getConnections()){
+                connection.flush();
+            }
+        }
+    }
+
+    /** Validates pending build plans, splitting a fixed budget of requests evenly between all players that have one. */
+    void validateBuildPlans(){
+        int players = playerGroup.size(), pending = 0;
+
+        for(Player player : playerGroup.all()){
+            if(player.con != null && player.con.buildPlan != null) pending++;
+        }
+
+        if(pending == 0) return;
+
+        int budget = maxPlanValidations, share = Mathf.ceil(maxPlanValidations / (float)pending);
+        //start with a different player every tick, so the remainder of the split is not always given to the same one
+        planOffset = (planOffset + 1) % players;
+
+        for(int i = 0; i < players && budget > 0; i++){
+            Player player = playerGroup.all().get((i + planOffset) % players);
+            NetConnection connection = player.con;
+
+            if(connection == null || connection.buildPlan == null) continue;
+
+            budget -= connection.buildPlan.validate(player, Math.min(share, budget));
+
+            if(connection.buildPlan.isDone()){
+                connection.buildPlan = null;
+            }
         }
     }
 
@@ -436,24 +522,17 @@ public class NetServer implements ApplicationListener{
         admins.save();
     }
 
+    /**
+     * Sends the world state to a player. Entities and core items that have not changed since a snapshot the player
+     * has acknowledged are left out, see {@link SnapshotBaseline}.
+     */
     public void writeSnapshot(Player player) throws IOException{
-        syncStream.reset();
-        ObjectSet<Tile> cores = state.teams.get(player.getTeam()).cores;
+        SnapshotBaseline baseline = player.con.baseline;
+        int snapshotID = baseline.begin();
+        chunks = 0;
 
-        dataStream.writeByte(cores.size);
-
-        for(Tile tile : cores){
-            dataStream.writeInt(tile.pos());
-            tile.entity.items.write(dataStream);
-        }
-
-        dataStream.close();
-        byte[] stateBytes = syncStream.toByteArray();
-
-        //write basic state data.
-        Call.onStateSnapshot(player.con.id, state.wavetime, state.wave, state.enemies(), (short)stateBytes.length, Net.compressSnapshot(stateBytes));
-
-        viewport.setSize(player.con.viewWidth, player.con.viewHeight).setCenter(player.con.viewX, player.con.viewY);
+        EntityInterest interest = player.con.interest;
+        interest.begin(player.con.viewX, player.con.viewY, player.con.viewWidth, player.con.viewHeight);
 
         //check for syncable groups
         for(EntityGroup<?> group : Entities.getAllGroups()){
@@ -464,37 +543,127 @@ public class NetServer implements ApplicationListener{
                 throw new RuntimeException("Entity group '" + group.getType() + "' contains SyncTrait entities, yet mapping is not enabled. In order for syncing to work, you must enable mapping for this group.");
             }
 
+            //units are only sent when near the player's viewport; players, fires and puddles are always sent
+            boolean filtered = group.all().get(0) instanceof BaseUnit;
+            Array<? extends Entity> entities = group.all();
+
+            if(filtered && !interest.unbounded()){
+                interest.area(viewport);
+                interestEntities.clear();
+                group.intersect(viewport.x, viewport.y, viewport.width, viewport.height, addInterest);
+                entities = interestEntities;
+            }
+
             syncStream.reset();
 
             int sent = 0;
 
-            for(Entity entity :  group.all()){
+            for(Entity entity : entities){
                 SyncTrait sync = (SyncTrait)entity;
                 if(!sync.isSyncing()) continue;
+                if(filtered && !interest.due(entity.getID(), group.getID(), entity.getX(), entity.getY())) continue;
+
+                //write id, type ID and entity, or reuse what was written for another player this tick
+                int entry = snapshotCache.serialize(sync);
 
-                //write all entities now
-                dataStream.writeInt(entity.getID()); //write id
-                dataStream.writeByte(sync.getTypeID().id); //write type ID
-                sync.write(dataStream); //write entity
+                //skip entities the player already has the current state of
+                if(!baseline.changed(entity.getID(), snapshotCache.hash(entry))) continue;
+
+                dataStream.write(snapshotCache.bytes(), snapshotCache.offset(entry), snapshotCache.length(entry));
 
                 sent++;
 
                 if(syncStream.size() > maxSnapshotSize){
-                    dataStream.close();
-                    byte[] syncBytes = syncStream.toByteArray();
-                    Call.onEntitySnapshot(player.con.id, (byte)group.getID(), (short)sent, (short)syncBytes.length, Net.compressSnapshot(syncBytes));
+                    sendEntities(player, group, snapshotID, sent);
                     sent = 0;
                     syncStream.reset();
                 }
             }
 
             if(sent > 0){
-                dataStream.close();
+                sendEntities(player, group, snapshotID, sent);
+            }
+        }
+
+        //the state snapshot goes last, as it carries the amount of entity chunks the client has to recieve
+        player.con.tag(snapshotID, -1);
+        syncStream.reset();
+        ObjectSet<Tile> cores = state.teams.get(player.getTeam()).cores;
+
+        dataStream.writeByte(cores.size);
+
+        for(Tile tile : cores){
+            dataStream.writeInt(tile.pos());
+            tile.entity.items.write(dataStream);
+        }
+
+        dataStream.close();
 
-                byte[] syncBytes = syncStream.toByteArray();
-                Call.onEntitySnapshot(player.con.id, (byte)group.getID(), (short)sent, (short)syncBytes.length, Net.compressSnapshot(syncBytes));
+        //core items are keyed by -1, which is never an entity ID
+        if(!baseline.changed(-1, syncStream.getBytes(), 0, syncStream.size())){
+            syncStream.reset();
+            dataStream.writeByte(0);
+        }
+
+        //write basic state data.
+        byte[] compressed = snapshotCache.compress(syncStream.getBytes(), syncStream.size());
+        Call.onStateSnapshot(player.con.id, snapshotID, (short)chunks, state.wavetime, state.wave, state.enemies(), (short)syncStream.size(), compressed);
+        snapshotBytes += compressed.length;
+
+        player.con.tag(-1, -1);
+
+        IntArray leaving = interest.leaving();
+        if(leaving.size > 0){
+            sendDespawns(player, leaving);
+        }
+    }
+
+    /** Tells a player to despawn units that left their area of interest. */
+    private void sendDespawns(Player player, IntArray leaving){
+        despawns.clear();
+
+        for(int i = 0; i < leaving.size; i += 2){
+            player.con.baseline.forget(leaving.get(i));
+
+            //units that died are removed on clients by their death, and must not be despawned as if they could return
+            EntityGroup<?> group = Entities.getGroup(leaving.get(i + 1));
+            if(group != null && group.getByID(leaving.get(i)) != null){
+                despawns.add(leaving.get(i), leaving.get(i + 1));
             }
         }
+
+        if(despawns.size == 0) return;
+
+        ByteBuffer buffer = ByteBuffer.allocate(Math.min(despawns.size / 2, maxDespawns) * 5);
+
+        for(int i = 0; i < despawns.size; i += 2){
+            buffer.putInt(despawns.get(i));
+            buffer.put((byte)despawns.get(i + 1));
+
+            if(!buffer.hasRemaining()){
+                Call.onEntityDespawn(player.con.id, buffer.array());
+                buffer = ByteBuffer.allocate(Math.min((despawns.size - i) / 2 - 1, maxDespawns) * 5);
+            }
+        }
+
+        if(buffer.position() > 0){
+            Call.onEntityDespawn(player.con.id, buffer.array());
+        }
+    }
+
+    private void sendEntities(Player player, EntityGroup<?> group, int snapshotID, int amount) throws IOException{
+        //player states go before all other entities when bandwidth is limited
+        player.con.tag(snapshotID, group == playerGroup ? SendPriority.players.ordinal() : -1);
+        dataStream.close();
+        byte[] compressed = snapshotCache.compress(syncStream.getBytes(), syncStream.size());
+        Call.onEntitySnapshot(player.con.id, snapshotID, (byte)group.getID(), (short)amount, (short)syncStream.size(), compressed);
+        snapshotBytes += compressed.length;
+        chunks++;
+    }
+
+    /** @return the amount of compressed snapshot bytes sent to all players during the last second. */
+    public int snapshotBandwidth(){
+        return lastSnapshotBytes;
     }
 
     String fixName(String name){
@@ -549,6 +718,18 @@ public class NetServer implements ApplicationListener{
 
     void sync(){
 
+        if(Time.timeSinceMillis(lastBandwidthTime) >= 1000){
+            lastSnapshotBytes = snapshotBytes;
+            snapshotBytes = 0;
+            lastBandwidthTime = Time.millis();
+        }
+
+        //all players are synced in the same tick, so each entity only has to be serialized once
+        boolean due = syncTimer.get(serverSyncTime);
+        if(due){
+            snapshotCache.clear();
+        }
+
         try{
 
             //iterate through each player
@@ -564,7 +745,7 @@ public class NetServer implements ApplicationListener{
                     return;
                 }
 
-                if(!player.timer.get(Player.timerSync, serverSyncTime) || !connection.hasConnected) continue;
+                if(!due || !connection.hasConnected) continue;
 
                 writeSnapshot(player);
             }
@@ -10,6 +10,7 @@ import io.anuke.mindustry.ai.*;
 import io.anuke.mindustry.content.*;
 import io.anuke.mindustry.core.GameState.*;
 import io.anuke.mindustry.entities.*;
+import io.anuke.mindustry.entities.effect.EnvironmentField;
 import io.anuke.mindustry.game.EventType.*;
 import io.anuke.mindustry.game.*;
 import io.anuke.mindustry.io.*;
@@ -20,6 +21,7 @@ import io.anuke.mindustry.maps.generators.*;
 import io.anuke.mindustry.type.*;
 import io.anuke.mindustry.world.*;
 import io.anuke.mindustry.world.blocks.*;
+import io.anuke.mindustry.world.blocks.distribution.BridgeIndex;
 
 import static io.anuke.mindustry.Vars.*;
 
@@ -28,6 +30,11 @@ public class World implements ApplicationListener{
     public final BlockIndexer indexer = new BlockIndexer();
     public final WaveSpawner spawner = new WaveSpawner();
     public final Pathfinder pathfinder = new Pathfinder();
+    public final ThreatIndex threats = new ThreatIndex();
+    public final AIScheduler scheduler = new AIScheduler();
+    public final BridgeIndex bridges = new BridgeIndex();
+    public final EnvironmentField environment = new EnvironmentField();
+    public final PlacementCache placement = new PlacementCache();
     public final Context context = new Context();
 
     private Map currentMap;
@@ -170,6 +177,8 @@ public class World implements ApplicationListener{
      */
     public void beginMapLoad(){
         generating = true;
+        //the cache still has the size of the last map; it is not used until the new one is loaded
+        placement.clear();
     }
 
     /**
@@ -280,6 +289,8 @@ public class World implements ApplicationListener{
 
     public void notifyChanged(Tile tile){
         if(!generating){
+            //cleared right away, so that blocks placed this tick are not placed over
+            placement.invalidate(tile);
             Core.app.post(() -> Events.fire(new TileChangeEvent(tile)));
         }
     }
@@ -1,8 +1,7 @@
 package io.anuke.mindustry.entities;
 
 import io.anuke.annotations.Annotations.Struct;
-import io.anuke.arc.collection.GridBits;
-import io.anuke.arc.collection.IntQueue;
+import io.anuke.arc.collection.*;
 import io.anuke.arc.function.*;
 import io.anuke.arc.graphics.Color;
 import io.anuke.arc.math.Mathf;
@@ -21,9 +20,15 @@ import io.anuke.mindustry.gen.PropCell;
 import io.anuke.mindustry.graphics.Pal;
 import io.anuke.mindustry.world.Tile;
 
+import java.util.Arrays;
+
 import static io.anuke.mindustry.Vars.*;
 
-/** Utility class for damaging in an area. */
+/**
+ * Utility class for damaging in an area.
+ * Area damage and line collisions are queued during a tick and resolved by {@link #update()}.
+ * Overlapping area damage is merged, so that every unit and block is only damaged once per tick with the summed damage.
+ */
 public class Damage{
     private static Rectangle rect = new Rectangle();
     private static Rectangle hitrect = new Rectangle();
@@ -31,6 +36,31 @@ public class Damage{
     private static GridBits bits = new GridBits(30, 30);
     private static IntQueue propagation = new IntQueue();
 
+    /** Queued area damage requests. */
+    private static int requests;
+    private static Team[] requestTeam = new Team[16];
+    private static float[] requestX = new float[16], requestY = new float[16], requestRadius = new float[16], requestDamage = new float[16];
+    private static boolean[] requestComplete = new boolean[16];
+
+    /** Units and tiles hit by the current batch, with their summed damage and knockback. */
+    private static ObjectIntMap<Unit> unitIndex = new ObjectIntMap<>();
+    private static Array<Unit> hitUnits = new Array<>();
+    private static float[] unitDamage = new float[16], unitVelocityX = new float[16], unitVelocityY = new float[16];
+    private static IntIntMap tileIndex = new IntIntMap();
+    private static Array<Tile> hitTiles = new Array<>();
+    private static float[] tileDamageSum = new float[16];
+
+    /** Queued line collisions. */
+    private static int lines;
+    private static Bullet[] lineHitter = new Bullet[16];
+    private static Team[] lineTeam = new Team[16];
+    private static Effect[] lineEffect = new Effect[16];
+    private static float[] lineX = new float[16], lineY = new float[16], lineAngle = new float[16], lineLength = new float[16];
+    private static boolean[] lineLarge = new boolean[16];
+    /** Buffers reused by every line collision. */
+    private static IntArray lineTiles = new IntArray();
+    private static Array<Unit> lineUnits = new Array<>();
+
     /** Creates a dynamic explosion based on specified parameters. */
     public static void dynamicExplosion(float x, float y, float flammability, float explosiveness, float power, float radius, Color color){
         for(int i = 0; i < Mathf.clamp(power / 20, 0, 6); i++){
@@ -82,67 +112,119 @@ public class Damage{
     }
 
     /**
-     * Damages entities in a line.
+     * Queues a collision of a bullet with entities in a line, resolved with the rest of the tick's damage.
      * Only enemies of the specified team are damaged.
      */
     public static void collideLine(Bullet hitter, Team team, Effect effect, float x, float y, float angle, float length, boolean large){
-        tr.trns(angle, length);
-        IntPositionConsumer collider = (cx, cy) -> {
-            Tile tile = world.ltile(cx, cy);
-            if(tile != null && tile.entity != null && tile.getTeamID() != team.ordinal() && tile.entity.collide(hitter)){
-                tile.entity.collision(hitter);
-                hitter.getBulletType().hit(hitter, tile.worldx(), tile.worldy());
-            }
-        };
+        if(lines == lineX.length){
+            int size = lines * 2;
+            lineHitter = Arrays.copyOf(lineHitter, size);
+            lineTeam = Arrays.copyOf(lineTeam, size);
+            lineEffect = Arrays.copyOf(lineEffect, size);
+            lineX = Arrays.copyOf(lineX, size);
+            lineY = Arrays.copyOf(lineY, size);
+            lineAngle = Arrays.copyOf(lineAngle, size);
+            lineLength = Arrays.copyOf(lineLength, size);
+            lineLarge = Arrays.copyOf(lineLarge, size);
+        }
+
+        lineHitter[lines] = hitter;
+        lineTeam[lines] = team;
+        lineEffect[lines] = effect;
+        lineX[lines] = x;
+        lineY[lines] = y;
+        lineAngle[lines] = angle;
+        lineLength[lines] = length;
+        lineLarge[lines] = large;
+        lines++;
+    }
 
-        world.raycastEachWorld(x, y, x + tr.x, y + tr.y, (cx, cy) -> {
-            collider.accept(cx, cy);
-            if(large){
-                for(Point2 p : Geometry.d4){
-                    collider.accept(cx + p.x, cy + p.y);
+    /** Resolves all queued line collisions against tiles and the threat index. */
+    private static void resolveLines(){
+        float expand = 3f;
+
+        for(int i = 0; i < lines; i++){
+            Bullet hitter = lineHitter[i];
+            Team team = lineTeam[i];
+            float x = lineX[i], y = lineY[i];
+            tr.trns(lineAngle[i], lineLength[i]);
+            float x2 = tr.x + x, y2 = tr.y + y;
+
+            walkLine(x, y, x2, y2);
+            for(int j = 0; j < lineTiles.size; j += 2){
+                int cx = lineTiles.get(j), cy = lineTiles.get(j + 1);
+                collideTile(hitter, team, cx, cy);
+                if(lineLarge[i]){
+                    for(Point2 p : Geometry.d4){
+                        collideTile(hitter, team, cx + p.x, cy + p.y);
+                    }
                 }
             }
-            return false;
-        });
 
-        rect.setPosition(x, y).setSize(tr.x, tr.y);
-        float x2 = tr.x + x, y2 = tr.y + y;
+            rect.set(Math.min(x, x2) - expand, Math.min(y, y2) - expand, Math.abs(x2 - x) + expand * 2, Math.abs(y2 - y) + expand * 2);
+            world.threats.nearby(team, rect, lineUnits);
 
-        if(rect.width < 0){
-            rect.x += rect.width;
-            rect.width *= -1;
-        }
+            for(Unit e : lineUnits){
+                e.hitbox(hitrect);
+                hitrect.x -= expand;
+                hitrect.y -= expand;
+                hitrect.width += expand * 2;
+                hitrect.height += expand * 2;
 
-        if(rect.height < 0){
-            rect.y += rect.height;
-            rect.height *= -1;
+                Vector2 vec = Geometry.raycastRect(x, y, x2, y2, hitrect);
+
+                if(vec != null){
+                    Effects.effect(lineEffect[i], vec.x, vec.y);
+                    e.collision(hitter, vec.x, vec.y);
+                    hitter.collision(e, vec.x, vec.y);
+                }
+            }
+
+            lineHitter[i] = null;
+            lineTeam[i] = null;
+            lineEffect[i] = null;
         }
 
-        float expand = 3f;
+        lines = 0;
+        lineUnits.clear();
+    }
+
+    private static void collideTile(Bullet hitter, Team team, int x, int y){
+        Tile tile = world.ltile(x, y);
+        if(tile != null && tile.entity != null && tile.getTeamID() != team.ordinal() && tile.entity.collide(hitter)){
+            tile.entity.collision(hitter);
+            hitter.getBulletType().hit(hitter, tile.worldx(), tile.worldy());
+        }
+    }
 
-        rect.y -= expand;
-        rect.x -= expand;
-        rect.width += expand * 2;
-        rect.height += expand * 2;
-
-        Consumer<Unit> cons = e -> {
-            e.hitbox(hitrect);
-            Rectangle other = hitrect;
-            other.y -= expand;
-            other.x -= expand;
-            other.width += expand * 2;
-            other.height += expand * 2;
-
-            Vector2 vec = Geometry.raycastRect(x, y, x2, y2, other);
-
-            if(vec != null){
-                Effects.effect(effect, vec.x, vec.y);
-                e.collision(hitter, vec.x, vec.y);
-                hitter.collision(e, vec.x, vec.y);
+    /**
+     * Walks the tile grid along a line in world coordinates, storing tile coordinate pairs in {@link #lineTiles}.
+     * This is the same 8-connected walk as {@link io.anuke.mindustry.core.World#raycastEachWorld}, so diagonal lines do not hit corner tiles.
+     */
+    private static void walkLine(float x1, float y1, float x2, float y2){
+        lineTiles.clear();
+
+        int x = world.toTile(x1), y = world.toTile(y1);
+        int ex = world.toTile(x2), ey = world.toTile(y2);
+        int dx = Math.abs(ex - x), dy = Math.abs(ey - y);
+        int sx = x < ex ? 1 : -1, sy = y < ey ? 1 : -1;
+        int err = dx - dy;
+
+        while(true){
+            lineTiles.add(x, y);
+            if(x == ex && y == ey) break;
+
+            int e2 = 2 * err;
+            if(e2 > -dy){
+                err -= dy;
+                x += sx;
             }
-        };
 
-        Units.nearbyEnemies(team, rect, cons);
+            if(e2 < dx){
+                err += dx;
+                y += sy;
+            }
+        }
     }
 
     /** Damages all entities and blocks in a radius that are enemies of the team. */
@@ -176,37 +258,95 @@ public class Damage{
         damage(team, x, y, radius, damage, false);
     }
 
-    /** Damages all entities and blocks in a radius that are enemies of the team. */
+    /** Queues damage to all entities and blocks in a radius that are enemies of the team. */
     public static void damage(Team team, float x, float y, float radius, float damage, boolean complete){
-        Consumer<Unit> cons = entity -> {
-            if(entity.getTeam() == team || entity.dst(x, y) > radius){
-                return;
+        if(requests == requestX.length){
+            int size = requests * 2;
+            requestTeam = Arrays.copyOf(requestTeam, size);
+            requestX = Arrays.copyOf(requestX, size);
+            requestY = Arrays.copyOf(requestY, size);
+            requestRadius = Arrays.copyOf(requestRadius, size);
+            requestDamage = Arrays.copyOf(requestDamage, size);
+            requestComplete = Arrays.copyOf(requestComplete, size);
+        }
+
+        requestTeam[requests] = team;
+        requestX[requests] = x;
+        requestY[requests] = y;
+        requestRadius[requests] = radius;
+        requestDamage[requests] = damage;
+        requestComplete[requests] = complete;
+        requests++;
+    }
+
+    /** Resolves all line collisions and area damage queued since the last call. Called once per tick by the logic. */
+    public static void update(){
+        //lines first, as their hits may queue area damage
+        if(lines > 0) resolveLines();
+        if(requests == 0) return;
+
+        //accumulate everything first; damage applied below may queue more requests, which are resolved next tick
+        for(int i = 0; i < requests; i++){
+            Team team = requestTeam[i];
+            float x = requestX[i], y = requestY[i], radius = requestRadius[i], damage = requestDamage[i];
+
+            Consumer<Unit> cons = entity -> {
+                if(entity.getTeam() == team || entity.dst(x, y) > radius){
+                    return;
+                }
+                int index = unitIndex(entity);
+                unitDamage[index] += calculateDamage(x, y, entity.x, entity.y, radius, damage);
+                //TODO better velocity displacement
+                float dst = tr.set(entity.x - x, entity.y - y).len();
+                tr.setLength((1f - dst / radius) * 2f / entity.mass());
+                unitVelocityX[index] += tr.x;
+                unitVelocityY[index] += tr.y;
+            };
+
+            rect.setSize(radius * 2).setCenter(x, y);
+            if(team != null){
+                Units.nearbyEnemies(team, rect, cons);
+            }else{
+                Units.nearby(rect, cons);
             }
-            float amount = calculateDamage(x, y, entity.x, entity.y, radius, damage);
-            entity.damage(amount);
-            //TODO better velocity displacement
-            float dst = tr.set(entity.x - x, entity.y - y).len();
-            entity.velocity().add(tr.setLength((1f - dst / radius) * 2f / entity.mass()));
-        };
 
-        rect.setSize(radius * 2).setCenter(x, y);
-        if(team != null){
-            Units.nearbyEnemies(team, rect, cons);
-        }else{
-            Units.nearby(rect, cons);
+            if(!requestComplete[i]){
+                int trad = (int)(radius / tilesize);
+                Tile tile = world.tileWorld(x, y);
+                if(tile != null){
+                    tileDamage(team, tile.x, tile.y, trad, damage);
+                }
+            }else{
+                completeDamage(team, x, y, radius, damage);
+            }
+
+            requestTeam[i] = null;
         }
+        requests = 0;
 
-        if(!complete){
-            int trad = (int)(radius / tilesize);
-            Tile tile = world.tileWorld(x, y);
-            if(tile != null){
-                tileDamage(team, tile.x, tile.y, trad, damage);
+        for(int i = 0; i < hitUnits.size; i++){
+            Unit unit = hitUnits.get(i);
+            unit.damage(unitDamage[i]);
+            unit.velocity().add(unitVelocityX[i], unitVelocityY[i]);
+        }
+
+        for(int i = 0; i < hitTiles.size; i++){
+            Tile tile = hitTiles.get(i);
+            if(tile.entity != null){
+                tile.entity.damage(tileDamageSum[i]);
             }
-        }else{
-            completeDamage(team, x, y, radius, damage);
         }
+
+        unitIndex.clear();
+        hitUnits.clear();
+        tileIndex.clear();
+        hitTiles.clear();
     }
 
+    /**
+     * Adds damage spreading out from a tile to the current batch.
+     * Blocks absorb damage up to their health left after the rest of the batch, shielding blocks behind them.
+     */
     public static void tileDamage(Team team, int startx, int starty, int radius, float baseDamage){
         bits.clear();
         propagation.clear();
@@ -233,9 +373,11 @@ public class Damage{
 
             //apply damage to entity if needed
             if(tile.entity != null && tile.getTeam() != team){
-                int health = (int)tile.entity.health;
-                if(tile.entity.health > 0){
-                    tile.entity.damage(scaledDamage);
+                int index = tileIndex(tile);
+                float left = tile.entity.health - tileDamageSum[index];
+                int health = (int)left;
+                if(left > 0){
+                    tileDamageSum[index] += scaledDamage;
                     scaledDamage -= health;
 
                     if(scaledDamage <= 0) continue;
@@ -256,12 +398,46 @@ public class Damage{
             for(int dy = -trad; dy <= trad; dy++){
                 Tile tile = world.tile(Math.round(x / tilesize) + dx, Math.round(y / tilesize) + dy);
                 if(tile != null && tile.entity != null && (team == null || state.teams.areEnemies(team, tile.getTeam())) && Mathf.dst(dx, dy) <= trad){
-                    tile.entity.damage(damage);
+                    tileDamageSum[tileIndex(tile)] += damage;
                 }
             }
         }
     }
 
+    /** @return the index of a unit in the current batch, adding it if needed. */
+    private static int unitIndex(Unit unit){
+        int index = unitIndex.get(unit, -1);
+        if(index == -1){
+            index = hitUnits.size;
+            hitUnits.add(unit);
+            unitIndex.put(unit, index);
+
+            if(index == unitDamage.length){
+                unitDamage = Arrays.copyOf(unitDamage, index * 2);
+                unitVelocityX = Arrays.copyOf(unitVelocityX, index * 2);
+                unitVelocityY = Arrays.copyOf(unitVelocityY, index * 2);
+            }
+            unitDamage[index] = unitVelocityX[index] = unitVelocityY[index] = 0f;
+        }
+        return index;
+    }
+
+    /** @return the index of a tile in the current batch, adding it if needed. */
+    private static int tileIndex(Tile tile){
+        int index = tileIndex.get(tile.pos(), -1);
+        if(index == -1){
+            index = hitTiles.size;
+            hitTiles.add(tile);
+            tileIndex.put(tile.pos(), index);
+
+            if(index == tileDamageSum.length){
+                tileDamageSum = Arrays.copyOf(tileDamageSum, index * 2);
+            }
+            tileDamageSum[index] = 0f;
+        }
+        return index;
+    }
+
     private static float calculateDamage(float x, float y, float tx, float ty, float radius, float damage){
         float dist = Mathf.dst(x, y, tx, ty);
         float falloff = 0.4f;
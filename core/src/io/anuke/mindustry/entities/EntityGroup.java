@@ -87,6 +87,12 @@ public class EntityGroup<T extends Entity>{
         entitiesToRemove.clear();
     }
 
+    /** Makes room for this many more entities, so that adding a large batch does not grow the arrays repeatedly. */
+    public void reserve(int amount){
+        entitiesToAdd.ensureCapacity(amount);
+        entityArray.ensureCapacity(entitiesToAdd.size + amount);
+    }
+
     public T getByID(int id){
         if(map == null) throw new RuntimeException("Mapping is not enabled for group " + id + "!");
         return map.get(id);
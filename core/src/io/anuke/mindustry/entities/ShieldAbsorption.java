@@ -0,0 +1,96 @@
+package io.anuke.mindustry.entities;
+
+import io.anuke.arc.collection.*;
+import io.anuke.arc.math.Mathf;
+import io.anuke.mindustry.entities.bullet.Bullet;
+import io.anuke.mindustry.world.blocks.defense.ForceProjector.ShieldEntity;
+
+import static io.anuke.mindustry.Vars.*;
+
+/**
+ * Absorbs bullets that enter force projector shields.
+ * Active shields register every tick, then all bullets are tested against them in one pass before bullet collisions:
+ * shields are bucketed into a grid, so each bullet is only tested against the shields around it.
+ */
+public class ShieldAbsorption{
+    private static Array<ShieldEntity> shields = new Array<>();
+
+    private static int width, height;
+    private static float cellSize;
+    /** Indices of the shields overlapping each cell. Empty cells are null. */
+    private static IntArray[] cells = {};
+    private static IntArray usedCells = new IntArray();
+
+    /** Makes a shield absorb bullets during the next pass. Called by each active shield every tick. */
+    public static void register(ShieldEntity shield){
+        shields.add(shield);
+    }
+
+    /** Absorbs all bullets inside registered shields, then clears the shields. Called once per tick by the logic. */
+    public static void update(){
+        if(shields.isEmpty()) return;
+
+        float maxRadius = 0f;
+        for(ShieldEntity shield : shields){
+            maxRadius = Math.max(shield.radius(), maxRadius);
+        }
+
+        //a shield can overlap at most 2x2 cells
+        cellSize = Math.max(maxRadius * 2f, tilesize * 4);
+        width = Math.max(Mathf.ceil(world.width() * tilesize / cellSize), 1);
+        height = Math.max(Mathf.ceil(world.height() * tilesize / cellSize), 1);
+
+        if(cells.length < width * height){
+            cells = new IntArray[width * height];
+        }
+
+        for(int i = 0; i < shields.size; i++){
+            ShieldEntity shield = shields.get(i);
+            float radius = shield.radius();
+
+            for(int cx = cellx(shield.x - radius); cx <= cellx(shield.x + radius); cx++){
+                for(int cy = celly(shield.y - radius); cy <= celly(shield.y + radius); cy++){
+                    int cell = cx + cy * width;
+                    if(cells[cell] == null){
+                        cells[cell] = new IntArray(false, 4);
+                    }
+                    if(cells[cell].size == 0){
+                        usedCells.add(cell);
+                    }
+                    cells[cell].add(i);
+                }
+            }
+        }
+
+        for(Bullet bullet : bulletGroup.all()){
+            //bullets absorbed or removed earlier this tick are still in the group until it updates
+            if(!bullet.isAdded() || !bullet.canBeAbsorbed()) continue;
+
+            IntArray candidates = cells[cellx(bullet.x) + celly(bullet.y) * width];
+            if(candidates == null) continue;
+
+            for(int i = 0; i < candidates.size; i++){
+                ShieldEntity shield = shields.get(candidates.get(i));
+
+                if(shield.canAbsorb(bullet)){
+                    shield.absorb(bullet);
+                    break;
+                }
+            }
+        }
+
+        for(int i = 0; i < usedCells.size; i++){
+            cells[usedCells.get(i)].clear();
+        }
+        usedCells.clear();
+        shields.clear();
+    }
+
+    private static int cellx(float x){
+        return Mathf.clamp((int)(x / cellSize), 0, width - 1);
+    }
+
+    private static int celly(float y){
+        return Mathf.clamp((int)(y / cellSize), 0, height - 1);
+    }
+}
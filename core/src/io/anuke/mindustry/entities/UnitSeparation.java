@@ -0,0 +1,176 @@
+package io.anuke.mindustry.entities;
+
+import io.anuke.arc.math.Mathf;
+import io.anuke.arc.util.Time;
+import io.anuke.mindustry.entities.type.*;
+import io.anuke.mindustry.game.Team;
+import io.anuke.mindustry.net.Net;
+
+import java.util.Arrays;
+
+import static io.anuke.mindustry.Vars.*;
+
+/**
+ * Pushes overlapping ground units apart, and overlapping air units apart.
+ * Runs once per tick after movement: units are bucketed into a grid, each neighbouring pair is visited once,
+ * and the push is applied to both units of the pair.
+ */
+public class UnitSeparation{
+    /** Separation distance of two units is the sum of their sizes divided by this. */
+    private static final float radScl = 3f;
+    /** Maximum push of a single neighbour. */
+    private static final float maxPush = 0.4f;
+
+    private static int count;
+    private static Unit[] units = new Unit[64];
+    private static float[] px = new float[64], py = new float[64], radius = new float[64], pushx = new float[64], pushy = new float[64];
+    private static boolean[] flying = new boolean[64], movable = new boolean[64];
+
+    private static int width, height;
+    private static float cellSize;
+    /** Units sorted by cell, and the index of the first unit of each cell followed by the total. */
+    private static int[] sorted = new int[64], cellStart = {}, cursor = {};
+
+    /** Applies separation to all units. Called once per tick by the logic. */
+    public static void update(){
+        count = 0;
+        float maxRadius = 0f;
+
+        for(Team team : Team.all){
+            for(BaseUnit unit : unitGroups[team.ordinal()].all()){
+                //units are simulated by the server only
+                if(!unit.isDead()) maxRadius = Math.max(add(unit, !Net.client()), maxRadius);
+            }
+        }
+
+        for(Player player : playerGroup.all()){
+            if(!player.isDead()) maxRadius = Math.max(add(player, player.isLocal || Net.server()), maxRadius);
+        }
+
+        if(count < 2) return;
+
+        //a pair can only be close enough to push if it is in the same or adjacent cells
+        cellSize = Math.max(maxRadius * 2f, tilesize);
+        width = Math.max(Mathf.ceil(world.width() * tilesize / cellSize), 1);
+        height = Math.max(Mathf.ceil(world.height() * tilesize / cellSize), 1);
+        sort();
+
+        Arrays.fill(pushx, 0, count, 0f);
+        Arrays.fill(pushy, 0, count, 0f);
+
+        //only visit occupied cells, in sorted order
+        for(int k = 0; k < count; k = cellStart[cell(sorted[k]) + 1]){
+            int cell = cell(sorted[k]);
+            int cx = cell % width, cy = cell / width;
+
+            //pairs within the cell, then with the neighbours that come after it, so each pair is visited once
+            for(int i = cellStart[cell]; i < cellStart[cell + 1]; i++){
+                for(int j = i + 1; j < cellStart[cell + 1]; j++){
+                    push(sorted[i], sorted[j]);
+                }
+            }
+
+            pairCells(cell, cx + 1, cy);
+            pairCells(cell, cx - 1, cy + 1);
+            pairCells(cell, cx, cy + 1);
+            pairCells(cell, cx + 1, cy + 1);
+        }
+
+        for(int i = 0; i < count; i++){
+            if(movable[i] && (pushx[i] != 0f || pushy[i] != 0f)){
+                Unit unit = units[i];
+                unit.velocity().add(pushx[i] / unit.mass() * Time.delta(), pushy[i] / unit.mass() * Time.delta());
+            }
+        }
+
+        Arrays.fill(units, 0, count, null);
+    }
+
+    private static float add(Unit unit, boolean canMove){
+        if(count == units.length){
+            int size = count * 2;
+            units = Arrays.copyOf(units, size);
+            px = Arrays.copyOf(px, size);
+            py = Arrays.copyOf(py, size);
+            radius = Arrays.copyOf(radius, size);
+            pushx = Arrays.copyOf(pushx, size);
+            pushy = Arrays.copyOf(pushy, size);
+            flying = Arrays.copyOf(flying, size);
+            movable = Arrays.copyOf(movable, size);
+            sorted = Arrays.copyOf(sorted, size);
+        }
+
+        units[count] = unit;
+        px[count] = unit.x;
+        py[count] = unit.y;
+        radius[count] = unit.getSize() / radScl;
+        flying[count] = unit.isFlying();
+        movable[count] = canMove;
+        return radius[count++];
+    }
+
+    private static void pairCells(int cell, int ox, int oy){
+        if(ox < 0 || ox >= width || oy >= height) return;
+
+        int other = ox + oy * width;
+        for(int i = cellStart[cell]; i < cellStart[cell + 1]; i++){
+            for(int j = cellStart[other]; j < cellStart[other + 1]; j++){
+                push(sorted[i], sorted[j]);
+            }
+        }
+    }
+
+    private static void push(int a, int b){
+        if(flying[a] != flying[b] || !(movable[a] || movable[b])) return;
+
+        float dx = px[a] - px[b], dy = py[a] - py[b];
+        float range = radius[a] + radius[b];
+        float dst2 = dx * dx + dy * dy;
+        if(dst2 >= range * range) return;
+
+        float scl = 1f - (float)Math.sqrt(dst2) / range;
+        dx *= scl;
+        dy *= scl;
+
+        float len2 = dx * dx + dy * dy;
+        if(len2 > maxPush * maxPush){
+            float limit = maxPush / (float)Math.sqrt(len2);
+            dx *= limit;
+            dy *= limit;
+        }
+
+        pushx[a] += dx;
+        pushy[a] += dy;
+        pushx[b] -= dx;
+        pushy[b] -= dy;
+    }
+
+    /** Counting sort of all units by grid cell. */
+    private static void sort(){
+        int cells = width * height;
+        if(cellStart.length != cells + 1){
+            cellStart = new int[cells + 1];
+            cursor = new int[cells];
+        }else{
+            Arrays.fill(cellStart, 0);
+        }
+
+        for(int i = 0; i < count; i++){
+            cellStart[cell(i) + 1]++;
+        }
+        for(int i = 0; i < cells; i++){
+            cellStart[i + 1] += cellStart[i];
+        }
+        System.arraycopy(cellStart, 0, cursor, 0, cells);
+
+        for(int i = 0; i < count; i++){
+            sorted[cursor[cell(i)]++] = i;
+        }
+    }
+
+    private static int cell(int index){
+        int x = Mathf.clamp((int)(px[index] / cellSize), 0, width - 1);
+        int y = Mathf.clamp((int)(py[index] / cellSize), 0, height - 1);
+        return x + y * width;
+    }
+}
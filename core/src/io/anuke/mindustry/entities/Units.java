@@ -4,7 +4,6 @@ import io.anuke.arc.collection.EnumSet;
 import io.anuke.arc.function.Consumer;
 import io.anuke.arc.function.Predicate;
 import io.anuke.arc.math.Mathf;
-import io.anuke.arc.math.geom.Geometry;
 import io.anuke.arc.math.geom.Rectangle;
 import io.anuke.mindustry.entities.traits.TargetTrait;
 import io.anuke.mindustry.entities.type.*;
@@ -68,8 +67,7 @@ public class Units{
 
     /** Returns the neareset damaged tile. */
     public static TileEntity findDamagedTile(Team team, float x, float y){
-        Tile tile = Geometry.findClosest(x, y, world.indexer.getDamaged(team));
-        return tile == null ? null : tile.entity;
+        return world.indexer.findDamaged(team, x, y, Float.MAX_VALUE);
     }
 
     /** Returns the neareset ally tile in a range. */
@@ -2,6 +2,7 @@ package io.anuke.mindustry.entities.bullet;
 
 import io.anuke.annotations.Annotations.Loc;
 import io.anuke.annotations.Annotations.Remote;
+import io.anuke.annotations.Annotations.SendPriority;
 import io.anuke.arc.math.Mathf;
 import io.anuke.arc.math.geom.Rectangle;
 import io.anuke.arc.math.geom.Vector2;
@@ -9,7 +10,6 @@ import io.anuke.arc.util.*;
 import io.anuke.arc.util.pooling.Pool.Poolable;
 import io.anuke.arc.util.pooling.Pools;
 import io.anuke.mindustry.entities.EntityGroup;
-import io.anuke.mindustry.entities.effect.Lightning;
 import io.anuke.mindustry.entities.impl.SolidEntity;
 import io.anuke.mindustry.entities.traits.*;
 import io.anuke.mindustry.entities.type.Unit;
@@ -81,13 +81,13 @@ public class Bullet extends SolidEntity implements DamageTrait, ScaleTrait, Pool
     }
 
     /** Internal use only. */
-    @Remote(called = Loc.server, unreliable = true)
+    @Remote(called = Loc.server, unreliable = true, sendPriority = SendPriority.bullets)
     public static void createBullet(BulletType type, float x, float y, float angle){
         create(type, null, Team.derelict, x, y, angle);
     }
 
     /** ok */
-    @Remote(called = Loc.server, unreliable = true)
+    @Remote(called = Loc.server, unreliable = true, sendPriority = SendPriority.bullets)
     public static void createBullet(BulletType type, Team team, float x, float y, float angle){
         create(type, null, team, x, y, angle);
     }
@@ -146,9 +146,6 @@ public class Bullet extends SolidEntity implements DamageTrait, ScaleTrait, Pool
 
     @Override
     public float damage(){
-        if(owner instanceof Lightning && data instanceof Float){
-            return (Float)data;
-        }
         return type.damage * damageMultiplier();
     }
 
@@ -0,0 +1,319 @@
+package io.anuke.mindustry.entities.effect;
+
+import io.anuke.arc.Events;
+import io.anuke.arc.collection.IntArray;
+import io.anuke.arc.math.Mathf;
+import io.anuke.arc.math.geom.*;
+import io.anuke.arc.util.Time;
+import io.anuke.mindustry.content.*;
+import io.anuke.mindustry.entities.Damage;
+import io.anuke.mindustry.entities.type.TileEntity;
+import io.anuke.mindustry.game.EventType.WorldLoadEvent;
+import io.anuke.mindustry.gen.Call;
+import io.anuke.mindustry.type.Liquid;
+import io.anuke.mindustry.world.Tile;
+
+import java.util.Arrays;
+
+import static io.anuke.mindustry.Vars.*;
+
+/**
+ * Dense per-tile state of puddles and fires, simulated server-side as a cellular automaton over lists of active cells.
+ * This includes applying status effects to units and starting fires.
+ * {@link Puddle} and {@link Fire} entities hold no simulation state on the server; they read it from their cell,
+ * and only exist for drawing, saving and network sync.
+ */
+public class EnvironmentField{
+    private int width, height;
+
+    /** Liquid ID of each puddle cell, or -1 if there is no puddle. */
+    private byte[] liquid;
+    private byte[] generation;
+    private float[] amount, accepting, effectTime;
+    private boolean[] puddleListed;
+    private IntArray puddles = new IntArray(false, 64);
+
+    /** Lifetime of each fire cell, or 0 if there is no fire. */
+    private float[] lifetime;
+    private float[] time, baseFlammability, puddleFlammability;
+    private short[] burningBlock;
+    private boolean[] fireListed;
+    private IntArray fires = new IntArray(false, 64);
+
+    public EnvironmentField(){
+        Events.on(WorldLoadEvent.class, event -> resize(world.width(), world.height()));
+    }
+
+    /** Steps all active puddles and fires. Called once per tick by the logic. */
+    public void update(){
+        if(amount == null) return;
+
+        updatePuddles();
+        updateFires();
+    }
+
+    public int puddleCount(){
+        return puddles.size;
+    }
+
+    public int fireCount(){
+        return fires.size;
+    }
+
+    float puddleAmount(Tile tile){
+        int index = index(tile);
+        return index == -1 || liquid[index] == -1 ? 0f : amount[index];
+    }
+
+    int puddleGeneration(Tile tile){
+        int index = index(tile);
+        return index == -1 ? 0 : generation[index];
+    }
+
+    void addPuddle(Tile tile, Liquid type, float value, int gen){
+        int index = index(tile);
+        if(index == -1) return;
+
+        liquid[index] = (byte)type.id;
+        amount[index] = value;
+        accepting[index] = effectTime[index] = 0f;
+        generation[index] = (byte)gen;
+
+        if(!puddleListed[index]){
+            puddleListed[index] = true;
+            puddles.add(index);
+        }
+    }
+
+    /** Makes a puddle accept at least this amount of liquid during its next step. */
+    void accept(Tile tile, float value){
+        int index = index(tile);
+        if(index != -1 && liquid[index] != -1){
+            accepting[index] = Math.max(value, accepting[index]);
+        }
+    }
+
+    void addPuddleAmount(Tile tile, float value){
+        int index = index(tile);
+        if(index != -1 && liquid[index] != -1){
+            amount[index] += value;
+        }
+    }
+
+    /** Clears a puddle cell. It is dropped from the active list during the next step. */
+    void removePuddle(Tile tile){
+        int index = index(tile);
+        if(index != -1){
+            liquid[index] = -1;
+            amount[index] = accepting[index] = 0f;
+        }
+    }
+
+    boolean hasFire(Tile tile){
+        int index = index(tile);
+        return index != -1 && lifetime[index] > 0f;
+    }
+
+    float fireTime(Tile tile){
+        int index = index(tile);
+        return index == -1 ? 0f : time[index];
+    }
+
+    float fireLifetime(Tile tile){
+        int index = index(tile);
+        return index == -1 ? 0f : lifetime[index];
+    }
+
+    /** Starts a fire on a cell, or refreshes the lifetime of an existing one. */
+    void ignite(Tile tile, float life, float elapsed){
+        int index = index(tile);
+        if(index == -1) return;
+
+        if(lifetime[index] <= 0f){
+            baseFlammability[index] = -1f;
+            puddleFlammability[index] = 0f;
+        }
+
+        lifetime[index] = life;
+        time[index] = elapsed;
+
+        if(!fireListed[index]){
+            fireListed[index] = true;
+            fires.add(index);
+        }
+    }
+
+    void extinguish(Tile tile, float intensity){
+        int index = index(tile);
+        if(index != -1 && lifetime[index] > 0f){
+            time[index] += intensity * Time.delta();
+        }
+    }
+
+    /** Clears a fire cell. It is dropped from the active list during the next step. */
+    void removeFire(Tile tile){
+        int index = index(tile);
+        if(index != -1){
+            lifetime[index] = time[index] = 0f;
+        }
+    }
+
+    private void updatePuddles(){
+        float delta = Time.delta();
+        float spreadAmount = Puddle.maxLiquid / 1.5f;
+
+        //iterate backwards, so cells appended by spreading are only stepped next tick
+        for(int i = puddles.size - 1; i >= 0; i--){
+            int index = puddles.get(i);
+
+            if(liquid[index] == -1){
+                puddleListed[index] = false;
+                puddles.removeIndex(i);
+                continue;
+            }
+
+            Liquid type = content.liquid(liquid[index]);
+            float value = amount[index];
+            float addSpeed = accepting[index] > 0 ? 3f : 0f;
+
+            value -= delta * (1f - type.viscosity) / (5f + addSpeed);
+            value += accepting[index];
+            accepting[index] = 0f;
+
+            if(value >= spreadAmount && generation[index] < Puddle.maxGeneration){
+                int x = index % width, y = index / width;
+                Tile tile = world.tile(x, y);
+                float deposited = Math.min((value - spreadAmount) / 4f, 0.3f) * delta;
+
+                for(Point2 point : Geometry.d4){
+                    Tile other = world.tile(x + point.x, y + point.y);
+                    if(other != null && other.block() == Blocks.air){
+                        Puddle.deposit(other, tile, type, deposited, generation[index] + 1);
+                        value -= deposited / 2f; //tweak to speed up/slow down puddle propagation
+                    }
+                }
+            }
+
+            amount[index] = Mathf.clamp(value, 0, Puddle.maxLiquid);
+
+            if(amount[index] >= Puddle.maxLiquid / 2f && effectTime[index] <= 0f){
+                Tile tile = world.tile(index % width, index / width);
+                Puddle.affectUnits(tile.worldx(), tile.worldy(), type, amount[index]);
+
+                if(type.temperature > 0.7f && tile.link().entity != null && Mathf.chance(0.3 * delta)){
+                    Fire.create(tile);
+                }
+
+                effectTime[index] = 20f;
+            }
+
+            effectTime[index] -= delta;
+
+            if(amount[index] <= 0f){
+                Puddle puddle = Puddle.getPuddle(world.tile(index % width, index / width));
+                liquid[index] = -1;
+                puddleListed[index] = false;
+                puddles.removeIndex(i);
+
+                if(puddle != null){
+                    Call.onPuddleRemoved(puddle.getID());
+                }
+            }
+        }
+    }
+
+    private void updateFires(){
+        float delta = Time.delta();
+
+        for(int i = fires.size - 1; i >= 0; i--){
+            int index = fires.get(i);
+
+            if(lifetime[index] <= 0f){
+                fireListed[index] = false;
+                fires.removeIndex(i);
+                continue;
+            }
+
+            Tile tile = world.tile(index % width, index / width);
+            time[index] = Mathf.clamp(time[index] + delta, 0, lifetime[index]);
+
+            if(time[index] >= lifetime[index]){
+                lifetime[index] = time[index] = 0f;
+                fireListed[index] = false;
+                fires.removeIndex(i);
+
+                Fire fire = Fire.getFire(tile);
+                if(fire != null){
+                    fire.remove();
+                }
+                continue;
+            }
+
+            TileEntity entity = tile.link().entity;
+            boolean damage = entity != null;
+
+            float flammability = baseFlammability[index] + puddleFlammability[index];
+
+            if(!damage && flammability <= 0){
+                time[index] += delta * 8;
+            }
+
+            if(baseFlammability[index] < 0 || burningBlock[index] != tile.block().id){
+                baseFlammability[index] = tile.block().getFlammability(tile);
+                burningBlock[index] = tile.block().id;
+            }
+
+            if(damage){
+                lifetime[index] += Mathf.clamp(flammability / 8f, 0f, 0.6f) * delta;
+            }
+
+            if(flammability > 1f && Mathf.chance(Fire.spreadChance * delta * Mathf.clamp(flammability / 5f, 0.3f, 2f))){
+                Point2 p = Geometry.d4[Mathf.random(3)];
+                Fire.create(world.tile(tile.x + p.x, tile.y + p.y));
+
+                if(Mathf.chance(Fire.fireballChance * delta * Mathf.clamp(flammability / 10f))){
+                    Call.createBullet(Bullets.fireball, tile.worldx(), tile.worldy(), Mathf.random(360f));
+                }
+            }
+
+            if(Mathf.chance(0.1 * delta)){
+                puddleFlammability[index] = liquid[index] == -1 ? 0f : content.liquid(liquid[index]).flammability * amount[index] / 3f;
+
+                if(damage){
+                    entity.damage(0.4f);
+                }
+                Damage.damageUnits(null, tile.worldx(), tile.worldy(), tilesize, 3f,
+                unit -> !unit.isFlying() && !unit.isImmune(StatusEffects.burning),
+                unit -> unit.applyEffect(StatusEffects.burning, 60 * 5));
+            }
+        }
+    }
+
+    private int index(Tile tile){
+        if(tile == null || amount == null || tile.x >= width || tile.y >= height) return -1;
+        return tile.x + tile.y * width;
+    }
+
+    private void resize(int width, int height){
+        int size = width * height;
+        this.width = width;
+        this.height = height;
+
+        liquid = new byte[size];
+        generation = new byte[size];
+        amount = new float[size];
+        accepting = new float[size];
+        effectTime = new float[size];
+        puddleListed = new boolean[size];
+        Arrays.fill(liquid, (byte)-1);
+        puddles.clear();
+
+        lifetime = new float[size];
+        time = new float[size];
+        baseFlammability = new float[size];
+        puddleFlammability = new float[size];
+        burningBlock = new short[size];
+        fireListed = new boolean[size];
+        fires.clear();
+    }
+}
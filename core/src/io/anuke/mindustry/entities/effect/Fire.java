@@ -9,7 +9,6 @@ import io.anuke.mindustry.content.*;
 import io.anuke.mindustry.entities.*;
 import io.anuke.mindustry.entities.impl.*;
 import io.anuke.mindustry.entities.traits.*;
-import io.anuke.mindustry.entities.type.*;
 import io.anuke.mindustry.game.*;
 import io.anuke.mindustry.gen.*;
 import io.anuke.mindustry.net.*;
@@ -19,14 +18,18 @@ import java.io.*;
 
 import static io.anuke.mindustry.Vars.*;
 
+/**
+ * A fire on a tile. Burning, damage and spreading are simulated by the {@link EnvironmentField},
+ * which this entity reads its time and lifetime from for saving and network sync. Clients have no field,
+ * and advance the synced time themselves.
+ */
 public class Fire extends TimedEntity implements SaveTrait, SyncTrait{
     private static final IntMap<Fire> map = new IntMap<>();
-    private static final float baseLifetime = 1000f, spreadChance = 0.05f, fireballChance = 0.07f;
+    static final float baseLifetime = 1000f, spreadChance = 0.05f, fireballChance = 0.07f;
 
     private int loadedPosition = -1;
     private Tile tile;
-    private Block block;
-    private float baseFlammability = -1, puddleFlammability;
+    /** Lifetime on clients, or the loaded lifetime until the fire is added to the field. */
     private float lifetime;
 
     /** Deserialization use only! */
@@ -47,14 +50,17 @@ public class Fire extends TimedEntity implements SaveTrait, SyncTrait{
         if(fire == null){
             fire = new Fire();
             fire.tile = tile;
-            fire.lifetime = baseLifetime;
             fire.set(tile.worldx(), tile.worldy());
             fire.add();
             map.put(tile.pos(), fire);
-        }else{
-            fire.lifetime = baseLifetime;
-            fire.time = 0f;
         }
+
+        world.environment.ignite(tile, baseLifetime, 0f);
+    }
+
+    /** Returns the fire on the specified tile. May return null. */
+    public static Fire getFire(Tile tile){
+        return map.get(tile.pos());
     }
 
     public static boolean has(int x, int y){
@@ -70,7 +76,11 @@ public class Fire extends TimedEntity implements SaveTrait, SyncTrait{
      */
     public static void extinguish(Tile tile, float intensity){
         if(tile != null && map.containsKey(tile.pos())){
-            map.get(tile.pos()).time += intensity * Time.delta();
+            if(Net.client()){
+                map.get(tile.pos()).time += intensity * Time.delta();
+            }else{
+                world.environment.extinguish(tile, intensity);
+            }
         }
     }
 
@@ -86,7 +96,12 @@ public class Fire extends TimedEntity implements SaveTrait, SyncTrait{
 
     @Override
     public float lifetime(){
-        return lifetime;
+        return Net.client() ? lifetime : world.environment.fireLifetime(tile);
+    }
+
+    @Override
+    public float time(){
+        return Net.client() ? time : world.environment.fireTime(tile);
     }
 
     @Override
@@ -103,68 +118,18 @@ public class Fire extends TimedEntity implements SaveTrait, SyncTrait{
             Sounds.fire.at(this);
         }
 
-        time = Mathf.clamp(time + Time.delta(), 0, lifetime());
-        map.put(tile.pos(), this);
-
+        //the field removes fires serverside once they burn out
         if(Net.client()){
-            return;
-        }
-
-        if(time >= lifetime() || tile == null){
-            remove();
-            return;
-        }
-
-        TileEntity entity = tile.link().entity;
-        boolean damage = entity != null;
-
-        float flammability = baseFlammability + puddleFlammability;
-
-        if(!damage && flammability <= 0){
-            time += Time.delta() * 8;
-        }
-
-        if(baseFlammability < 0 || block != tile.block()){
-            baseFlammability = tile.block().getFlammability(tile);
-            block = tile.block();
-        }
-
-        if(damage){
-            lifetime += Mathf.clamp(flammability / 8f, 0f, 0.6f) * Time.delta();
-        }
-
-        if(flammability > 1f && Mathf.chance(spreadChance * Time.delta() * Mathf.clamp(flammability / 5f, 0.3f, 2f))){
-            Point2 p = Geometry.d4[Mathf.random(3)];
-            Tile other = world.tile(tile.x + p.x, tile.y + p.y);
-            create(other);
-
-            if(Mathf.chance(fireballChance * Time.delta() * Mathf.clamp(flammability / 10f))){
-                Call.createBullet(Bullets.fireball, x, y, Mathf.random(360f));
-            }
-        }
-
-        if(Mathf.chance(0.1 * Time.delta())){
-            Puddle p = Puddle.getPuddle(tile);
-            if(p != null){
-                puddleFlammability = p.getFlammability() / 3f;
-            }else{
-                puddleFlammability = 0;
-            }
-
-            if(damage){
-                entity.damage(0.4f);
-            }
-            Damage.damageUnits(null, tile.worldx(), tile.worldy(), tilesize, 3f,
-            unit -> !unit.isFlying() && !unit.isImmune(StatusEffects.burning),
-            unit -> unit.applyEffect(StatusEffects.burning, 60 * 5));
+            map.put(tile.pos(), this);
+            time = Mathf.clamp(time + Time.delta(), 0, lifetime());
         }
     }
 
     @Override
     public void writeSave(DataOutput stream) throws IOException{
         stream.writeInt(tile.pos());
-        stream.writeFloat(lifetime);
-        stream.writeFloat(time);
+        stream.writeFloat(lifetime());
+        stream.writeFloat(time());
     }
 
     @Override
@@ -178,7 +143,7 @@ public class Fire extends TimedEntity implements SaveTrait, SyncTrait{
     @Override
     public void write(DataOutput data) throws IOException{
         data.writeInt(tile.pos());
-        data.writeFloat(lifetime);
+        data.writeFloat(lifetime());
     }
 
     @Override
@@ -195,8 +160,6 @@ public class Fire extends TimedEntity implements SaveTrait, SyncTrait{
     public void reset(){
         loadedPosition = -1;
         tile = null;
-        baseFlammability = -1;
-        puddleFlammability = 0f;
         incrementID();
     }
 
@@ -206,6 +169,7 @@ public class Fire extends TimedEntity implements SaveTrait, SyncTrait{
             map.put(loadedPosition, this);
             tile = world.tile(loadedPosition);
             set(tile.worldx(), tile.worldy());
+            world.environment.ignite(tile, lifetime, time);
         }
     }
 
@@ -214,6 +178,7 @@ public class Fire extends TimedEntity implements SaveTrait, SyncTrait{
         if(tile != null){
             Call.onRemoveFire(id);
             map.remove(tile.pos());
+            world.environment.removeFire(tile);
         }
     }
 
@@ -2,6 +2,7 @@ package io.anuke.mindustry.entities.effect;
 
 import io.anuke.annotations.Annotations.Loc;
 import io.anuke.annotations.Annotations.Remote;
+import io.anuke.annotations.Annotations.SendPriority;
 import io.anuke.arc.graphics.g2d.*;
 import io.anuke.arc.math.Interpolation;
 import io.anuke.arc.math.Mathf;
@@ -31,14 +32,14 @@ public class ItemTransfer extends TimedEntity implements DrawTrait{
     public ItemTransfer(){
     }
 
-    @Remote(called = Loc.server, unreliable = true)
+    @Remote(called = Loc.server, unreliable = true, sendPriority = SendPriority.effects)
     public static void transferItemEffect(Item item, float x, float y, Unit to){
         if(to == null) return;
         create(item, x, y, to, () -> {
         });
     }
 
-    @Remote(called = Loc.server, unreliable = true)
+    @Remote(called = Loc.server, unreliable = true, sendPriority = SendPriority.effects)
     public static void transferItemToUnit(Item item, float x, float y, Unit to){
         if(to == null) return;
         create(item, x, y, to, () -> to.addItem(item));
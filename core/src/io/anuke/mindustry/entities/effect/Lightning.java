@@ -2,17 +2,15 @@ package io.anuke.mindustry.entities.effect;
 
 import io.anuke.annotations.Annotations.Loc;
 import io.anuke.annotations.Annotations.Remote;
-import io.anuke.arc.collection.Array;
-import io.anuke.arc.collection.IntSet;
+import io.anuke.arc.collection.*;
 import io.anuke.arc.graphics.Color;
 import io.anuke.arc.graphics.g2d.*;
 import io.anuke.arc.math.*;
 import io.anuke.arc.math.geom.*;
 import io.anuke.arc.util.pooling.Pools;
 import io.anuke.mindustry.content.Bullets;
-import io.anuke.mindustry.entities.EntityGroup;
-import io.anuke.mindustry.entities.Units;
-import io.anuke.mindustry.entities.bullet.Bullet;
+import io.anuke.mindustry.entities.*;
+import io.anuke.mindustry.entities.bullet.BulletType;
 import io.anuke.mindustry.entities.impl.TimedEntity;
 import io.anuke.mindustry.entities.traits.DrawTrait;
 import io.anuke.mindustry.entities.traits.TimeTrait;
@@ -20,16 +18,21 @@ import io.anuke.mindustry.entities.type.Unit;
 import io.anuke.mindustry.game.Team;
 import io.anuke.mindustry.gen.Call;
 import io.anuke.mindustry.graphics.Pal;
+import io.anuke.mindustry.world.Tile;
 
-import static io.anuke.mindustry.Vars.bulletGroup;
+import static io.anuke.mindustry.Vars.*;
 
 public class Lightning extends TimedEntity implements DrawTrait, TimeTrait{
     public static final float lifetime = 10f;
 
     private static final RandomXS128 random = new RandomXS128();
     private static final Rectangle rect = new Rectangle();
+    private static final Rectangle hitrect = new Rectangle();
     private static final Array<Unit> entities = new Array<>();
     private static final IntSet hit = new IntSet();
+    /** Positions struck by lightning that is currently being created. */
+    private static final FloatArray strikes = new FloatArray();
+    private static Unit struck;
     private static final int maxChain = 8;
     private static final float hitRange = 30f;
     private static int lastSeed = 0;
@@ -51,7 +54,7 @@ public class Lightning extends TimedEntity implements DrawTrait, TimeTrait{
     public static void createLighting(int seed, Team team, Color color, float damage, float x, float y, float rotation, int length){
 
         Lightning l = Pools.obtain(Lightning.class, Lightning::new);
-        Float dmg = damage;
+        int start = strikes.size;
 
         l.x = x;
         l.y = y;
@@ -62,7 +65,7 @@ public class Lightning extends TimedEntity implements DrawTrait, TimeTrait{
         hit.clear();
 
         for(int i = 0; i < length / 2; i++){
-            Bullet.create(Bullets.damageLightning, l, team, x, y, 0f, 1f, 1f, dmg);
+            strikes.add(x, y);
             l.lines.add(new Vector2(x + Mathf.range(3f), y + Mathf.range(3f)));
 
             rect.setSize(hitRange).setCenter(x, y);
@@ -87,6 +90,46 @@ public class Lightning extends TimedEntity implements DrawTrait, TimeTrait{
                 y += Angles.trnsy(rotation, hitRange / 2f);
             }
         }
+
+        //strikes are resolved after the path is generated, as hitting blocks may create more lightning
+        int end = strikes.size;
+        for(int i = start; i < end; i += 2){
+            strike(team, damage, strikes.get(i), strikes.get(i + 1));
+        }
+        strikes.size = start;
+    }
+
+    /** Damages the first enemy unit or block at a position of the lightning path. */
+    private static void strike(Team team, float damage, float x, float y){
+        BulletType type = Bullets.damageLightning;
+
+        struck = null;
+        rect.setSize(type.hitSize).setCenter(x, y);
+        Units.nearbyEnemies(team, rect, u -> {
+            if(struck != null || u.isDead() || (u.isFlying() && !type.collidesAir)) return;
+
+            u.hitbox(hitrect);
+            if(hitrect.overlaps(rect)){
+                struck = u;
+            }
+        });
+
+        if(struck != null){
+            struck.damage(damage);
+            struck.applyEffect(type.status, type.statusDuration);
+            Effects.effect(type.hitEffect, x, y);
+            struck = null;
+            return;
+        }
+
+        Tile tile = world.tileWorld(x, y);
+        if(tile != null){
+            tile = tile.link();
+            if(tile.entity != null && !tile.entity.isDead() && tile.getTeam() != team){
+                tile.block().handleLightningHit(tile.entity, damage, x, y);
+                Effects.effect(type.hitEffect, x, y);
+            }
+        }
     }
 
     @Override
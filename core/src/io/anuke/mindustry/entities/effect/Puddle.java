@@ -8,7 +8,7 @@ import io.anuke.arc.graphics.g2d.Draw;
 import io.anuke.arc.graphics.g2d.Fill;
 import io.anuke.arc.math.Angles;
 import io.anuke.arc.math.Mathf;
-import io.anuke.arc.math.geom.*;
+import io.anuke.arc.math.geom.Rectangle;
 import io.anuke.arc.util.Time;
 import io.anuke.arc.util.pooling.Pool.Poolable;
 import io.anuke.arc.util.pooling.Pools;
@@ -26,10 +26,15 @@ import java.io.*;
 
 import static io.anuke.mindustry.Vars.*;
 
+/**
+ * A liquid puddle on a tile. Spreading, evaporation and effects on units are simulated by the {@link EnvironmentField},
+ * which this entity reads its amount from for drawing, saving and network sync.
+ * Clients have no field, and interpolate the synced amount and apply unit effects themselves.
+ */
 public class Puddle extends SolidEntity implements SaveTrait, Poolable, DrawTrait, SyncTrait{
     private static final IntMap<Puddle> map = new IntMap<>();
-    private static final float maxLiquid = 70f;
-    private static final int maxGeneration = 2;
+    static final float maxLiquid = 70f;
+    static final int maxGeneration = 2;
     private static final Color tmp = new Color();
     private static final Rectangle rect = new Rectangle();
     private static final Rectangle rect2 = new Rectangle();
@@ -41,9 +46,9 @@ public class Puddle extends SolidEntity implements SaveTrait, Poolable, DrawTrai
     private float lastRipple;
     private Tile tile;
     private Liquid liquid;
+    /** Interpolated amount on clients, or the loaded amount until the puddle is added to the field. */
     private float amount, targetAmount;
-    private float accepting;
-    private byte generation;
+    private byte loadedGeneration;
 
     /** Deserialization use only! */
     public Puddle(){
@@ -64,7 +69,7 @@ public class Puddle extends SolidEntity implements SaveTrait, Poolable, DrawTrai
         return map.get(tile.pos());
     }
 
-    private static void deposit(Tile tile, Tile source, Liquid liquid, float amount, int generation){
+    static void deposit(Tile tile, Tile source, Liquid liquid, float amount, int generation){
         if(tile == null) return;
 
         if(tile.floor().isLiquid && !canStayOn(liquid, tile.floor().liquidDrop)){
@@ -88,20 +93,19 @@ public class Puddle extends SolidEntity implements SaveTrait, Poolable, DrawTrai
             Puddle puddle = Pools.obtain(Puddle.class, Puddle::new);
             puddle.tile = tile;
             puddle.liquid = liquid;
-            puddle.amount = amount;
-            puddle.generation = (byte)generation;
             puddle.set((tile.worldx() + source.worldx()) / 2f, (tile.worldy() + source.worldy()) / 2f);
             puddle.add();
             map.put(tile.pos(), puddle);
+            world.environment.addPuddle(tile, liquid, amount, generation);
         }else if(p.liquid == liquid){
-            p.accepting = Math.max(amount, p.accepting);
+            world.environment.accept(tile, amount);
 
-            if(generation == 0 && p.lastRipple <= Time.time() - 40f && p.amount >= maxLiquid / 2f){
+            if(generation == 0 && p.lastRipple <= Time.time() - 40f && p.amount() >= maxLiquid / 2f){
                 Effects.effect(Fx.ripple, p.liquid.color, (tile.worldx() + source.worldx()) / 2f, (tile.worldy() + source.worldy()) / 2f);
                 p.lastRipple = Time.time();
             }
         }else{
-            p.amount += reactPuddle(p.liquid, liquid, amount, p.tile, p.x, p.y);
+            world.environment.addPuddleAmount(tile, reactPuddle(p.liquid, liquid, amount, p.tile, p.x, p.y));
         }
     }
 
@@ -135,13 +139,34 @@ public class Puddle extends SolidEntity implements SaveTrait, Poolable, DrawTrai
         return 0f;
     }
 
+    /** Applies the status effect of a liquid to ground units in a puddle. */
+    static void affectUnits(float x, float y, Liquid liquid, float amount){
+        Units.nearby(rect.setSize(Mathf.clamp(amount / (maxLiquid / 1.5f)) * 10f).setCenter(x, y), unit -> {
+            if(unit.isFlying()) return;
+
+            unit.hitbox(rect2);
+            if(!rect.overlaps(rect2)) return;
+
+            unit.applyEffect(liquid.effect, 60 * 2);
+
+            if(unit.velocity().len() > 0.1){
+                Effects.effect(Fx.ripple, liquid.color, unit.x, unit.y);
+            }
+        });
+    }
+
     @Remote(called = Loc.server)
     public static void onPuddleRemoved(int puddleid){
         puddleGroup.removeByID(puddleid);
     }
 
     public float getFlammability(){
-        return liquid.flammability * amount;
+        return liquid.flammability * amount();
+    }
+
+    /** @return the amount of liquid in this puddle */
+    public float amount(){
+        return Net.client() ? amount : world.environment.puddleAmount(tile);
     }
 
     @Override
@@ -166,56 +191,13 @@ public class Puddle extends SolidEntity implements SaveTrait, Poolable, DrawTrai
 
     @Override
     public void update(){
+        //the field applies effects serverside
+        if(!Net.client()) return;
 
-        //no updating happens clientside
-        if(Net.client()){
-            amount = Mathf.lerpDelta(amount, targetAmount, 0.15f);
-        }else{
-            //update code
-            float addSpeed = accepting > 0 ? 3f : 0f;
-
-            amount -= Time.delta() * (1f - liquid.viscosity) / (5f + addSpeed);
-
-            amount += accepting;
-            accepting = 0f;
-
-            if(amount >= maxLiquid / 1.5f && generation < maxGeneration){
-                float deposited = Math.min((amount - maxLiquid / 1.5f) / 4f, 0.3f) * Time.delta();
-                for(Point2 point : Geometry.d4){
-                    Tile other = world.tile(tile.x + point.x, tile.y + point.y);
-                    if(other != null && other.block() == Blocks.air){
-                        deposit(other, tile, liquid, deposited, generation + 1);
-                        amount -= deposited / 2f; //tweak to speed up/slow down puddle propagation
-                    }
-                }
-            }
+        amount = Mathf.lerpDelta(amount, targetAmount, 0.15f);
 
-            amount = Mathf.clamp(amount, 0, maxLiquid);
-
-            if(amount <= 0f){
-                Call.onPuddleRemoved(getID());
-            }
-        }
-
-        //effects-only code
         if(amount >= maxLiquid / 2f && updateTime <= 0f){
-            Units.nearby(rect.setSize(Mathf.clamp(amount / (maxLiquid / 1.5f)) * 10f).setCenter(x, y), unit -> {
-                if(unit.isFlying()) return;
-
-                unit.hitbox(rect2);
-                if(!rect.overlaps(rect2)) return;
-
-                unit.applyEffect(liquid.effect, 60 * 2);
-
-                if(unit.velocity().len() > 0.1){
-                    Effects.effect(Fx.ripple, liquid.color, unit.x, unit.y);
-                }
-            });
-
-            if(liquid.temperature > 0.7f && (tile.link().entity != null) && Mathf.chance(0.3 * Time.delta())){
-                Fire.create(tile);
-            }
-
+            affectUnits(x, y, liquid, amount);
             updateTime = 20f;
         }
 
@@ -226,7 +208,7 @@ public class Puddle extends SolidEntity implements SaveTrait, Poolable, DrawTrai
     public void draw(){
         seeds = id;
         boolean onLiquid = tile.floor().isLiquid;
-        float f = Mathf.clamp(amount / (maxLiquid / 1.5f));
+        float f = Mathf.clamp(amount() / (maxLiquid / 1.5f));
         float smag = onLiquid ? 0.8f : 0f;
         float sscl = 20f;
 
@@ -251,8 +233,8 @@ public class Puddle extends SolidEntity implements SaveTrait, Poolable, DrawTrai
         stream.writeFloat(x);
         stream.writeFloat(y);
         stream.writeByte(liquid.id);
-        stream.writeFloat(amount);
-        stream.writeByte(generation);
+        stream.writeFloat(amount());
+        stream.writeByte(world.environment.puddleGeneration(tile));
     }
 
     @Override
@@ -262,7 +244,7 @@ public class Puddle extends SolidEntity implements SaveTrait, Poolable, DrawTrai
         this.y = stream.readFloat();
         this.liquid = content.liquid(stream.readByte());
         this.amount = stream.readFloat();
-        this.generation = stream.readByte();
+        this.loadedGeneration = stream.readByte();
         add();
     }
 
@@ -271,9 +253,8 @@ public class Puddle extends SolidEntity implements SaveTrait, Poolable, DrawTrai
         loadedPosition = -1;
         tile = null;
         liquid = null;
-        amount = 0;
-        generation = 0;
-        accepting = 0;
+        amount = targetAmount = 0;
+        loadedGeneration = 0;
     }
 
     @Override
@@ -281,6 +262,7 @@ public class Puddle extends SolidEntity implements SaveTrait, Poolable, DrawTrai
         if(loadedPosition != -1){
             map.put(loadedPosition, this);
             tile = world.tile(loadedPosition);
+            world.environment.addPuddle(tile, liquid, amount, loadedGeneration);
         }
     }
 
@@ -288,6 +270,7 @@ public class Puddle extends SolidEntity implements SaveTrait, Poolable, DrawTrai
     public void removed(){
         if(tile != null){
             map.remove(tile.pos());
+            world.environment.removePuddle(tile);
         }
         reset();
     }
@@ -297,7 +280,7 @@ public class Puddle extends SolidEntity implements SaveTrait, Poolable, DrawTrai
         data.writeFloat(x);
         data.writeFloat(y);
         data.writeByte(liquid.id);
-        data.writeShort((short)(amount * 4));
+        data.writeShort((short)(amount() * 4));
         data.writeInt(tile.pos());
     }
 
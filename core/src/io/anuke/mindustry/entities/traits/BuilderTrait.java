@@ -164,11 +164,8 @@ public interface BuilderTrait extends Entity, TeamTrait{
             if(applyChanges){
                 buildQueue().addLast(request);
             }else if(isBuilding()){
-                BuildRequest last = buildRequest();
-                last.progress = progress;
-                if(last.tile() != null && last.tile().entity instanceof BuildEntity){
-                    ((BuildEntity)last.tile().entity).progress = progress;
-                }
+                //site progress itself is synced separately, see BuildBlock#onConstructProgress
+                buildRequest().progress = progress;
             }
         }
     }
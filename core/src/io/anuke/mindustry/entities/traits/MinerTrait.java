@@ -8,6 +8,7 @@ import io.anuke.arc.util.Time;
 import io.anuke.mindustry.content.*;
 import io.anuke.mindustry.entities.Effects;
 import io.anuke.mindustry.entities.type.*;
+import io.anuke.mindustry.game.ResourceFlow.Flow;
 import io.anuke.mindustry.gen.Call;
 import io.anuke.mindustry.graphics.*;
 import io.anuke.mindustry.type.Item;
@@ -51,12 +52,13 @@ public interface MinerTrait extends Entity{
             unit.rotation = Mathf.slerpDelta(unit.rotation, unit.angleTo(tile.worldx(), tile.worldy()), 0.4f);
 
             if(Mathf.chance(Time.delta() * (0.06 - item.hardness * 0.01) * getMinePower())){
-
                 if(unit.dst(core) < mineTransferRange && core.tile.block().acceptStack(item, 1, core.tile, unit) == 1){
+                    state.stats.flow.item(unit.getTeam(), Flow.produced, item, 1);
                     Call.transferItemTo(item, 1,
                             tile.worldx() + Mathf.range(tilesize / 2f),
                             tile.worldy() + Mathf.range(tilesize / 2f), core.tile);
                 }else if(unit.acceptsItem(item)){
+                    state.stats.flow.item(unit.getTeam(), Flow.produced, item, 1);
                     Call.transferItemToUnit(item,
                             tile.worldx() + Mathf.range(tilesize / 2f),
                             tile.worldy() + Mathf.range(tilesize / 2f),
@@ -28,11 +28,12 @@ public abstract class BaseUnit extends Unit implements ShooterTrait{
 
     protected static int timerIndex = 0;
 
-    protected static final int timerTarget = timerIndex++;
     protected static final int timerTarget2 = timerIndex++;
     protected static final int timerShootLeft = timerIndex++;
     protected static final int timerShootRight = timerIndex++;
 
+    protected static final float retargetInterval = 20f, coreSearchInterval = 60f;
+
     protected UnitType type;
     protected Interval timer = new Interval(5);
     protected StateMachine state = new StateMachine();
@@ -40,6 +41,10 @@ public abstract class BaseUnit extends Unit implements ShooterTrait{
 
     protected int spawner = noSpawner;
 
+    /** Times at which this unit may next retarget or search for a core, granted by the AI scheduler. -1 if not yet scheduled. */
+    private float retargetTime = -1f, coreSearchTime = -1f;
+    private TileEntity enemyCore;
+
     /** internal constructor used for deserialization, DO NOT USE */
     public BaseUnit(){
     }
@@ -113,7 +118,13 @@ public abstract class BaseUnit extends Unit implements ShooterTrait{
     }
 
     public boolean retarget(){
-        return timer.get(timerTarget, 20);
+        if(retargetTime < 0f) retargetTime = world.scheduler.phase(id, retargetInterval);
+
+        if(world.scheduler.grant(retargetTime)){
+            retargetTime = Time.time() + retargetInterval;
+            return true;
+        }
+        return false;
     }
 
     /** Only runs when the unit has a target. */
@@ -145,16 +156,28 @@ public abstract class BaseUnit extends Unit implements ShooterTrait{
         }
     }
 
+    /** Returns the closest enemy core. The result is cached, and only searched for again when scheduled or when the core is gone. */
     public TileEntity getClosestEnemyCore(){
+        boolean valid = enemyCore != null && !enemyCore.isDead() && enemyCore.tile.entity == enemyCore;
+        if(coreSearchTime < 0f) coreSearchTime = world.scheduler.phase(id, coreSearchInterval);
+
+        if(valid && !world.scheduler.grant(coreSearchTime)){
+            return enemyCore;
+        }
+
+        if(!valid) world.scheduler.force();
+        coreSearchTime = Time.time() + coreSearchInterval;
+        enemyCore = null;
 
         for(Team enemy : Vars.state.teams.enemiesOf(team)){
             Tile tile = Geometry.findClosest(x, y, Vars.state.teams.get(enemy).cores);
             if(tile != null){
-                return tile.entity;
+                enemyCore = tile.entity;
+                break;
             }
         }
 
-        return null;
+        return enemyCore;
     }
 
     public UnitState getStartState(){
@@ -249,8 +272,6 @@ public abstract class BaseUnit extends Unit implements ShooterTrait{
             kill();
         }
 
-        avoidOthers();
-
         if(spawner != noSpawner && (world.tile(spawner) == null || !(world.tile(spawner).entity instanceof UnitFactoryEntity))){
             kill();
         }
@@ -300,6 +321,8 @@ public abstract class BaseUnit extends Unit implements ShooterTrait{
 
     @Override
     public void added(){
+        retargetTime = coreSearchTime = -1f;
+        enemyCore = null;
         state.set(getStartState());
 
         health(maxHealth());
@@ -34,8 +34,7 @@ import java.io.*;
 import static io.anuke.mindustry.Vars.*;
 
 public class Player extends Unit implements BuilderMinerTrait, ShooterTrait{
-    public static final int timerSync = 2;
-    public static final int timerAbility = 3;
+    public static final int timerAbility = 2;
     private static final int timerShootLeft = 0;
     private static final int timerShootRight = 1;
     private static final float liftoffBoost = 0.2f;
@@ -58,7 +57,7 @@ public class Player extends Unit implements BuilderMinerTrait, ShooterTrait{
 
     public NetConnection con;
     public boolean isLocal = false;
-    public Interval timer = new Interval(4);
+    public Interval timer = new Interval(3);
     public TargetTrait target;
     public TargetTrait moveTarget;
 
@@ -527,10 +526,6 @@ public class Player extends Unit implements BuilderMinerTrait, ShooterTrait{
             spawner = null;
         }
 
-        if(isLocal || Net.server()){
-            avoidOthers();
-        }
-
         Tile tile = world.tileWorld(x, y);
 
         boostHeat = Mathf.lerpDelta(boostHeat, (tile != null && tile.solid()) || (isBoosting && ((!movement.isZero() && moved) || !isLocal)) ? 1f : 0f, 0.08f);
@@ -731,12 +726,7 @@ public class Player extends Unit implements BuilderMinerTrait, ShooterTrait{
                         target = Units.closestTarget(team, x, y, getWeapon().bullet.range(), u -> u.getTeam() != Team.derelict, u -> u.getTeam() != Team.derelict);
 
                         if(mech.canHeal && target == null){
-                            target = Geometry.findClosest(x, y, world.indexer.getDamaged(Team.sharded));
-                            if(target != null && dst(target) > getWeapon().bullet.range()){
-                                target = null;
-                            }else if(target != null){
-                                target = ((Tile)target).entity;
-                            }
+                            target = world.indexer.findDamaged(Team.sharded, x, y, getWeapon().bullet.range());
                         }
 
                         if(target != null){
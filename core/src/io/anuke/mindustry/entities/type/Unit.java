@@ -38,8 +38,6 @@ public abstract class Unit extends DestructibleEntity implements SaveTrait, Targ
     public static final float maxAbsVelocity = 127f / velocityPercision;
     public static final int noSpawner = Pos.get(-1, 1);
 
-    private static final Vector2 moveVector = new Vector2();
-
     public float rotation;
 
     protected final Interpolator interpolator = new Interpolator();
@@ -205,21 +203,6 @@ public abstract class Unit extends DestructibleEntity implements SaveTrait, Targ
         return status.hasEffect(effect);
     }
 
-    public void avoidOthers(){
-        float radScl = 1.5f;
-        float fsize = getSize() / radScl;
-        moveVector.setZero();
-
-        Units.nearby(x - fsize/2f, y - fsize/2f, fsize, fsize, en -> {
-            if(en == this || en.isFlying() != isFlying()) return;
-            float dst = dst(en);
-            float scl = Mathf.clamp(1f - dst / (getSize()/(radScl*2f) + en.getSize()/(radScl*2f)));
-            moveVector.add(Tmp.v1.set((x - en.x) * scl, (y - en.y) * scl).limit(0.4f));
-        });
-
-        velocity.add(moveVector.x / mass() * Time.delta(), moveVector.y / mass() * Time.delta());
-    }
-
     public @Nullable TileEntity getClosestCore(){
         TeamData data = state.teams.get(team);
 
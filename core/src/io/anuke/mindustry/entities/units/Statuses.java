@@ -1,11 +1,9 @@
 package io.anuke.mindustry.entities.units;
 
 import io.anuke.arc.collection.Array;
-import io.anuke.arc.collection.Bits;
 import io.anuke.arc.graphics.Color;
 import io.anuke.arc.util.Time;
 import io.anuke.arc.util.Tmp;
-import io.anuke.arc.util.pooling.Pools;
 import io.anuke.mindustry.content.StatusEffects;
 import io.anuke.mindustry.entities.traits.Saveable;
 import io.anuke.mindustry.entities.type.Unit;
@@ -16,13 +14,18 @@ import java.io.*;
 
 import static io.anuke.mindustry.Vars.content;
 
-/** Class for controlling status effects on an entity. */
+/**
+ * Class for controlling status effects on an entity.
+ * Active effects are stored as a bitmask of effect IDs, with the remaining time of each effect indexed by ID.
+ */
 public class Statuses implements Saveable{
     private static final StatusEntry globalResult = new StatusEntry();
-    private static final Array<StatusEntry> removals = new Array<>();
 
-    private Array<StatusEntry> statuses = new Array<>();
-    private Bits applied = new Bits(content.getBy(ContentType.status).size);
+    /** Bits of all active effects. */
+    private long active;
+    /** Bits of all effects that were active during the last update. */
+    private long applied;
+    private float[] times = new float[content.getBy(ContentType.status).size];
 
     private float speedMultiplier;
     private float damageMultiplier;
@@ -31,77 +34,80 @@ public class Statuses implements Saveable{
     public void handleApply(io.anuke.mindustry.entities.type.Unit unit, StatusEffect effect, float duration){
         if(effect == StatusEffects.none || unit.isImmune(effect)) return; //don't apply empty or immune effects
 
-        if(statuses.size > 0){
-            //check for opposite effects
-            for(StatusEntry entry : statuses){
-                //extend effect
-                if(entry.effect == effect){
-                    entry.time = Math.max(entry.time, duration);
-                    return;
-                }else if(entry.effect.reactsWith(effect)){ //find opposite
-                    entry.effect.getTransition(unit, effect, entry.time, duration, globalResult);
-                    entry.time = globalResult.time;
-
-                    if(globalResult.effect != entry.effect){
-                        entry.effect = globalResult.effect;
-                    }
-
-                    //stop looking when one is found
-                    return;
+        long bit = 1L << effect.id;
+
+        //extend effect
+        if((active & bit) != 0){
+            times[effect.id] = Math.max(times[effect.id], duration);
+            return;
+        }
+
+        //check for opposite effects, stop looking when one is found
+        Array<StatusEffect> effects = content.getBy(ContentType.status);
+        for(long bits = active; bits != 0; bits &= bits - 1){
+            int id = Long.numberOfTrailingZeros(bits);
+            StatusEffect other = effects.get(id);
+
+            if(other.reactsWith(effect)){
+                globalResult.set(other, times[id]);
+                other.getTransition(unit, effect, times[id], duration, globalResult);
+
+                if(globalResult.effect == other){
+                    times[id] = globalResult.time;
+                }else{
+                    remove(id);
+                    set(globalResult.effect, globalResult.time);
                 }
+                return;
             }
         }
 
         //otherwise, no opposites found, add direct effect
-        StatusEntry entry = Pools.obtain(StatusEntry.class, StatusEntry::new);
-        entry.set(effect, duration);
-        statuses.add(entry);
+        set(effect, duration);
     }
 
     public Color getStatusColor(){
-        if(statuses.size == 0){
+        if(active == 0){
             return Tmp.c1.set(Color.WHITE);
         }
 
         float r = 0f, g = 0f, b = 0f;
-        for(StatusEntry entry : statuses){
-            r += entry.effect.color.r;
-            g += entry.effect.color.g;
-            b += entry.effect.color.b;
+        Array<StatusEffect> effects = content.getBy(ContentType.status);
+        for(long bits = active; bits != 0; bits &= bits - 1){
+            StatusEffect effect = effects.get(Long.numberOfTrailingZeros(bits));
+            r += effect.color.r;
+            g += effect.color.g;
+            b += effect.color.b;
         }
-        return Tmp.c1.set(r / statuses.size, g / statuses.size, b / statuses.size, 1f);
+        int size = Long.bitCount(active);
+        return Tmp.c1.set(r / size, g / size, b / size, 1f);
     }
 
     public void clear(){
-        statuses.clear();
+        active = 0;
     }
 
     public void update(Unit unit){
-        applied.clear();
+        applied = active;
         speedMultiplier = damageMultiplier = armorMultiplier = 1f;
 
-        if(statuses.size == 0) return;
+        if(active == 0) return;
 
-        removals.clear();
+        Array<StatusEffect> effects = content.getBy(ContentType.status);
+        for(long bits = active; bits != 0; bits &= bits - 1){
+            int id = Long.numberOfTrailingZeros(bits);
+            times[id] = Math.max(times[id] - Time.delta(), 0);
 
-        for(StatusEntry entry : statuses){
-            entry.time = Math.max(entry.time - Time.delta(), 0);
-            applied.set(entry.effect.id);
-
-            if(entry.time <= 0){
-                Pools.free(entry);
-                removals.add(entry);
+            if(times[id] <= 0){
+                remove(id);
             }else{
-                speedMultiplier *= entry.effect.speedMultiplier;
-                armorMultiplier *= entry.effect.armorMultiplier;
-                damageMultiplier *= entry.effect.damageMultiplier;
-                entry.effect.update(unit, entry.time);
+                StatusEffect effect = effects.get(id);
+                speedMultiplier *= effect.speedMultiplier;
+                armorMultiplier *= effect.armorMultiplier;
+                damageMultiplier *= effect.damageMultiplier;
+                effect.update(unit, times[id]);
             }
         }
-
-        if(removals.size > 0){
-            statuses.removeAll(removals, true);
-        }
     }
 
     public float getSpeedMultiplier(){
@@ -117,36 +123,43 @@ public class Statuses implements Saveable{
     }
 
     public boolean hasEffect(StatusEffect effect){
-        return applied.get(effect.id);
+        return (applied & (1L << effect.id)) != 0;
+    }
+
+    private void set(StatusEffect effect, float time){
+        long bit = 1L << effect.id;
+        times[effect.id] = (active & bit) != 0 ? Math.max(times[effect.id], time) : time;
+        active |= bit;
+    }
+
+    private void remove(int id){
+        active &= ~(1L << id);
+        times[id] = 0f;
     }
 
     @Override
     public void writeSave(DataOutput stream) throws IOException{
-        stream.writeByte(statuses.size);
-        for(StatusEntry entry : statuses){
-            stream.writeByte(entry.effect.id);
-            stream.writeFloat(entry.time);
+        stream.writeByte(Long.bitCount(active));
+        for(long bits = active; bits != 0; bits &= bits - 1){
+            int id = Long.numberOfTrailingZeros(bits);
+            stream.writeByte(id);
+            stream.writeFloat(times[id]);
         }
     }
 
     @Override
     public void readSave(DataInput stream, byte version) throws IOException{
-        for(StatusEntry effect : statuses){
-            Pools.free(effect);
-        }
-
-        statuses.clear();
+        active = 0;
 
         byte amount = stream.readByte();
         for(int i = 0; i < amount; i++){
             byte id = stream.readByte();
             float time = stream.readFloat();
-            StatusEntry entry = Pools.obtain(StatusEntry.class, StatusEntry::new);
-            entry.set(content.getByID(ContentType.status, id), time);
-            statuses.add(entry);
+            set(content.getByID(ContentType.status, id), time);
         }
     }
 
+    /** Result of a status effect transition. */
     public static class StatusEntry{
         public StatusEffect effect;
         public float time;
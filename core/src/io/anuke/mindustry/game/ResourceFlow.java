@@ -0,0 +1,123 @@
+package io.anuke.mindustry.game;
+
+import io.anuke.arc.util.Time;
+import io.anuke.mindustry.type.Item;
+import io.anuke.mindustry.type.Liquid;
+
+import java.util.Arrays;
+
+import static io.anuke.mindustry.Vars.content;
+
+/**
+ * Counts items and liquids produced, consumed, transported and lost, per team.
+ * Counts are added into the current stripe of a ring of per-second primitive arrays, which is rolled over by
+ * {@link #update()}. Recording an event never allocates; rates are averaged over the last {@link #window} seconds.
+ */
+public class ResourceFlow{
+    /** Amount of one-second stripes that rates are averaged over. */
+    public static final int window = 60;
+
+    private static final Flow[] flows = Flow.values();
+
+    /** Amount of counters per team and flow: all items, then all liquids. */
+    private int stride;
+    /** [stripe][(team * flows + flow) * stride + content] */
+    private float[][] stripes;
+    /** All-time totals, in the same layout as a stripe. */
+    private double[] totals;
+    private int stripe, completed;
+    private float timer;
+
+    public void item(Team team, Flow flow, Item item, int amount){
+        add(team, flow, item.id, amount);
+    }
+
+    public void liquid(Team team, Flow flow, Liquid liquid, float amount){
+        add(team, flow, content.items().size + liquid.id, amount);
+    }
+
+    /** Rolls over to the next stripe once a second. Called once per tick by the logic. */
+    public void update(){
+        if(stripes == null) return;
+
+        timer += Time.delta();
+        if(timer >= 60f){
+            timer %= 60f;
+            stripe = (stripe + 1) % window;
+            completed = Math.min(completed + 1, window - 1);
+            Arrays.fill(stripes[stripe], 0f);
+        }
+    }
+
+    /** @return the average amount of this item per second over the last completed seconds. */
+    public float rate(Team team, Flow flow, Item item){
+        return rate(index(team, flow, item.id));
+    }
+
+    /** @return the average amount of this liquid per second over the last completed seconds. */
+    public float rate(Team team, Flow flow, Liquid liquid){
+        return rate(index(team, flow, content.items().size + liquid.id));
+    }
+
+    public double total(Team team, Flow flow, Item item){
+        return totals == null ? 0 : totals[index(team, flow, item.id)];
+    }
+
+    public double total(Team team, Flow flow, Liquid liquid){
+        return totals == null ? 0 : totals[index(team, flow, content.items().size + liquid.id)];
+    }
+
+    public void clear(){
+        if(stripes == null) return;
+
+        for(float[] arr : stripes){
+            Arrays.fill(arr, 0f);
+        }
+        Arrays.fill(totals, 0);
+        stripe = completed = 0;
+        timer = 0f;
+    }
+
+    private float rate(int index){
+        if(stripes == null || completed == 0) return 0f;
+
+        float sum = 0f;
+        //skip the stripe currently being filled
+        for(int i = 1; i <= completed; i++){
+            sum += stripes[(stripe - i + window) % window][index];
+        }
+        return sum / completed;
+    }
+
+    private void add(Team team, Flow flow, int id, float amount){
+        if(team == null) return;
+        if(stripes == null) init();
+
+        int index = index(team, flow, id);
+        stripes[stripe][index] += amount;
+        totals[index] += amount;
+    }
+
+    private int index(Team team, Flow flow, int id){
+        if(stride == 0) stride = content.items().size + content.liquids().size;
+        return (team.ordinal() * flows.length + flow.ordinal()) * stride + id;
+    }
+
+    private void init(){
+        stride = content.items().size + content.liquids().size;
+        int size = Team.all.length * flows.length * stride;
+        stripes = new float[window][size];
+        totals = new double[size];
+    }
+
+    public enum Flow{
+        /** Created by drills, crafters and mining units. */
+        produced,
+        /** Used up as crafting input. */
+        consumed,
+        /** Delivered into a core. */
+        transported,
+        /** Incinerated, or destroyed along with the block holding it. */
+        lost
+    }
+}
@@ -22,6 +22,8 @@ public class Stats{
     public int buildingsDeconstructed;
     /** Friendly buildings destroyed. */
     public int buildingsDestroyed;
+    /** Per-team item and liquid flow counters. Not saved. */
+    public transient ResourceFlow flow = new ResourceFlow();
 
     public RankResult calculateRank(Zone zone, boolean launched){
         float score = 0;
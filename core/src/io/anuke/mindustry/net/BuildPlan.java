@@ -0,0 +1,179 @@
+package io.anuke.mindustry.net;
+
+import io.anuke.arc.collection.*;
+import io.anuke.mindustry.content.Blocks;
+import io.anuke.mindustry.entities.traits.BuilderTrait.BuildRequest;
+import io.anuke.mindustry.entities.type.Player;
+import io.anuke.mindustry.world.*;
+
+import java.nio.ByteBuffer;
+
+import static io.anuke.mindustry.Vars.*;
+
+/**
+ * A build queue, compressed into runs of requests for the same block and rotation that lie on a line.
+ * Clients send their queue as a plan when it is too long to fit into a snapshot.
+ * The server then decodes and validates the plan a slice at a time, adding accepted requests to the player's build queue.
+ */
+public class BuildPlan{
+    /** Maximum size of a single encoded chunk, in bytes. Must fit into one packet. */
+    public static final int maxChunkSize = 3600;
+    /** Maximum amount of chunks and of accepted requests in a plan. Anything past this is ignored. */
+    public static final int maxChunks = 16, maxRequests = 5000;
+    /** Maximum amount of requests decoded from a plan, and of rejected ones before the rest of the plan is dropped. */
+    public static final int maxDecoded = maxRequests * 2, maxRejected = 1000;
+    /** Size of one run: position, step, length, block ID (-1 for breaking) and rotation. */
+    private static final int runSize = 11;
+
+    public final int id;
+    private final Queue<ByteBuffer> chunks = new Queue<>();
+    private int received, accepted, decoded, rejected;
+    /** State of the run currently being validated. */
+    private int x, y, dx, dy, remaining, block, rotation;
+
+    public BuildPlan(int id){
+        this.id = id;
+    }
+
+    /** Adds a chunk of encoded runs, as received from the client. */
+    public void add(byte[] data){
+        if(received++ < maxChunks){
+            chunks.addLast(ByteBuffer.wrap(data));
+        }
+    }
+
+    /** @return whether every received request has been validated, or the rest of the plan is to be ignored. */
+    public boolean isDone(){
+        return (remaining == 0 && chunks.isEmpty()) || accepted >= maxRequests || decoded >= maxDecoded || rejected >= maxRejected;
+    }
+
+    /**
+     * Validates up to this many requests, adding the accepted ones to the player's build queue.
+     * @return the amount of requests validated
+     */
+    public int validate(Player player, int amount){
+        int validated = 0;
+
+        while(validated < amount && !isDone()){
+            if(remaining == 0){
+                ByteBuffer buffer = chunks.first();
+                if(buffer.remaining() < runSize){
+                    chunks.removeFirst();
+                    continue;
+                }
+
+                x = buffer.getShort();
+                y = buffer.getShort();
+                dx = buffer.get();
+                dy = buffer.get();
+                remaining = Math.max(buffer.getShort(), 0);
+                block = buffer.getShort();
+                rotation = buffer.get() & 3;
+                continue;
+            }
+
+            BuildRequest request = accept(player);
+            if(request != null){
+                player.buildQueue().addLast(request);
+                accepted++;
+            }else{
+                rejected++;
+            }
+
+            x += dx;
+            y += dy;
+            remaining--;
+            validated++;
+            decoded++;
+        }
+
+        return validated;
+    }
+
+    private BuildRequest accept(Player player){
+        Tile tile = world.tile(x, y);
+        if(tile == null) return null;
+
+        if(block == -1){
+            return Build.validBreak(player.getTeam(), x, y) && tile.block() != Blocks.air ? new BuildRequest(x, y) : null;
+        }
+
+        if(block < 0 || block >= content.blocks().size) return null;
+
+        Block type = content.block(block);
+
+        //skip blocks that cannot be built, and requests that are already done
+        if(!type.isVisible() || type.isHidden() || (tile.block() == type && (!type.rotate || tile.rotation() == rotation))){
+            return null;
+        }
+
+        return new BuildRequest(x, y, rotation, type);
+    }
+
+    /** Encodes build requests into chunks of runs, each of which fits into one packet. */
+    public static Array<byte[]> encode(Iterable<BuildRequest> requests){
+        Array<byte[]> result = new Array<>();
+        ByteBuffer buffer = ByteBuffer.allocate(maxChunkSize);
+        BuildRequest start = null;
+        int length = 0, stepx = 0, stepy = 0;
+
+        for(BuildRequest request : requests){
+            if(start != null && length < Short.MAX_VALUE && request.breaking == start.breaking
+            && (request.breaking || (request.block == start.block && request.rotation == start.rotation))){
+                int ox = request.x - start.x, oy = request.y - start.y;
+
+                //the second request of a run decides its step
+                if(length == 1 && (ox != 0 || oy != 0) && ox == (byte)ox && oy == (byte)oy){
+                    stepx = ox;
+                    stepy = oy;
+                    length++;
+                    continue;
+                }else if(length > 1 && ox == stepx * length && oy == stepy * length){
+                    length++;
+                    continue;
+                }
+            }
+
+            if(start != null){
+                writeRun(buffer, result, start, stepx, stepy, length);
+                if(result.size >= maxChunks) return result;
+            }
+
+            start = request;
+            length = 1;
+            stepx = stepy = 0;
+        }
+
+        if(start != null){
+            writeRun(buffer, result, start, stepx, stepy, length);
+        }
+
+        if(buffer.position() > 0 && result.size < maxChunks){
+            result.add(chunk(buffer));
+        }
+
+        return result;
+    }
+
+    /** Writes a run, moving the current chunk to the result first if it is full. */
+    private static void writeRun(ByteBuffer buffer, Array<byte[]> result, BuildRequest start, int stepx, int stepy, int length){
+        if(buffer.remaining() < runSize){
+            result.add(chunk(buffer));
+            buffer.clear();
+        }
+
+        buffer.putShort((short)start.x);
+        buffer.putShort((short)start.y);
+        buffer.put((byte)stepx);
+        buffer.put((byte)stepy);
+        buffer.putShort((short)length);
+        buffer.putShort(start.breaking ? (short)-1 : start.block.id);
+        buffer.put((byte)start.rotation);
+    }
+
+    private static byte[] chunk(ByteBuffer buffer){
+        byte[] bytes = new byte[buffer.position()];
+        System.arraycopy(buffer.array(), 0, bytes, 0, bytes.length);
+        return bytes;
+    }
+}
@@ -0,0 +1,96 @@
+package io.anuke.mindustry.net;
+
+import io.anuke.arc.collection.*;
+import io.anuke.arc.math.Mathf;
+import io.anuke.arc.math.geom.Rectangle;
+
+import static io.anuke.mindustry.Vars.tilesize;
+
+/**
+ * Decides which units are sent to a client, based on its viewport.
+ * Units inside the viewport are sent in every snapshot. Units in a margin around it accumulate priority that
+ * decreases with distance, and are only sent once it adds up, so that distant units are updated less often.
+ * Units outside of the margin are not sent at all, and the client is told to despawn them.
+ */
+public class EntityInterest{
+    /** Size of the margin around the viewport, in world units. */
+    public static final float margin = tilesize * 16;
+    /** Priority gained per snapshot by units at the outer edge of the margin. Units are sent once it reaches 1. */
+    private static final float minPriority = 0.25f;
+
+    private final Rectangle view = new Rectangle();
+    private boolean unbounded;
+    /** Maps IDs of units the client has to their group IDs. */
+    private final IntIntMap known = new IntIntMap();
+    private final IntFloatMap priority = new IntFloatMap();
+    private final IntSet seen = new IntSet();
+    private final IntArray leaving = new IntArray();
+
+    /** Starts a new snapshot with the client's current viewport. Until the client has sent one, all units are sent. */
+    public void begin(float x, float y, float width, float height){
+        unbounded = width <= 0f || height <= 0f;
+        view.setSize(width, height).setCenter(x, y);
+        seen.clear();
+    }
+
+    /** @return whether there is no viewport to filter by yet. */
+    public boolean unbounded(){
+        return unbounded;
+    }
+
+    /** Sets a rectangle to the area units need to be in to be sent: the viewport, extended by the margin. */
+    public Rectangle area(Rectangle out){
+        return out.set(view.x - margin, view.y - margin, view.width + margin * 2f, view.height + margin * 2f);
+    }
+
+    /**
+     * Marks a unit as being inside the area of interest, and accumulates its priority.
+     * @return whether the unit should be sent in this snapshot
+     */
+    public boolean due(int id, int group, float x, float y){
+        seen.add(id);
+
+        //units the client does not have are always sent
+        if(!known.containsKey(id)){
+            known.put(id, group);
+            priority.put(id, 0f);
+            return true;
+        }
+
+        if(unbounded) return true;
+
+        float dx = Math.max(Math.max(view.x - x, x - view.x - view.width), 0f);
+        float dy = Math.max(Math.max(view.y - y, y - view.y - view.height), 0f);
+        float total = priority.get(id, 0f) + Mathf.lerp(1f, minPriority, Mathf.clamp((float)Math.sqrt(dx * dx + dy * dy) / margin));
+
+        if(total >= 1f){
+            priority.put(id, total - 1f);
+            return true;
+        }
+
+        priority.put(id, total);
+        return false;
+    }
+
+    /**
+     * Forgets all units that were not marked during this snapshot.
+     * @return pairs of their IDs and group IDs, which are to be despawned on the client
+     */
+    public IntArray leaving(){
+        leaving.clear();
+
+        for(IntIntMap.Entry entry : known.entries()){
+            if(!seen.contains(entry.key)){
+                leaving.add(entry.key);
+                leaving.add(entry.value);
+            }
+        }
+
+        for(int i = 0; i < leaving.size; i += 2){
+            known.remove(leaving.get(i), 0);
+            priority.remove(leaving.get(i), 0f);
+        }
+
+        return leaving;
+    }
+}
@@ -5,6 +5,9 @@ import io.anuke.arc.math.geom.*;
 import io.anuke.arc.util.*;
 
 public class Interpolator{
+    /** Maximum time between updates to interpolate over. Entities that do not change are not synced, so gaps can be long. */
+    private static final long maxUpdateSpacing = 400;
+
     //used for movement
     public Vector2 target = new Vector2();
     public Vector2 last = new Vector2();
@@ -17,7 +20,7 @@ public class Interpolator{
     public float[] values = {};
 
     public void read(float cx, float cy, float x, float y, float... target1ds){
-        if(lastUpdated != 0) updateSpacing = Time.timeSinceMillis(lastUpdated);
+        if(lastUpdated != 0) updateSpacing = Math.min(Time.timeSinceMillis(lastUpdated), maxUpdateSpacing);
 
         lastUpdated = Time.millis();
 
@@ -1,6 +1,8 @@
 package io.anuke.mindustry.net;
 
+import io.anuke.annotations.Annotations.Nullable;
 import io.anuke.mindustry.net.Net.SendMode;
+import io.anuke.mindustry.net.Packets.InvokePacket;
 
 public abstract class NetConnection{
     private static int lastID;
@@ -16,6 +18,18 @@ public abstract class NetConnection{
     /** Timestamp of last recieved snapshot. */
     public long lastRecievedClientTime;
 
+    /** ID of the last build plan recieved, and the plan itself while it is being validated. */
+    public int buildPlanID;
+    public @Nullable BuildPlan buildPlan;
+    /** What this client has recieved of the world state, used to only send what changed in snapshots. */
+    public final SnapshotBaseline baseline = new SnapshotBaseline();
+    /** Which units are near this client's viewport, and how often to send them. */
+    public final EntityInterest interest = new EntityInterest();
+    /** Queue for unreliable packets, which are sent within a bandwidth budget. */
+    public final PacketScheduler scheduler = new PacketScheduler();
+    /** Snapshot ID and send priority that queued packets are tagged with, or -1 if none. */
+    private int snapshotTag = -1, priorityTag = -1;
+
     public boolean hasConnected = false;
     public boolean hasBegunConnecting = false;
     public float viewWidth, viewHeight, viewX, viewY;
@@ -30,7 +44,46 @@ public abstract class NetConnection{
         return true;
     }
 
-    public abstract void send(Object object, SendMode mode);
+    /** Sends a packet. Unreliable packets from the server are queued in the scheduler instead. */
+    public void send(Object object, SendMode mode){
+        if(mode == SendMode.udp && object instanceof InvokePacket){
+            scheduler.add((InvokePacket)object, priorityTag, snapshotTag);
+        }else{
+            write(object, mode);
+        }
+    }
+
+    /** Sends queued unreliable packets. Called once per tick. */
+    public void flush(){
+        scheduler.flush(this, pendingBytes());
+    }
+
+    /**
+     * Tags packets sent from now on as part of a snapshot, so the baseline knows when they are dropped.
+     * @param priority send priority to use instead of the packet's own, or -1
+     */
+    public void tag(int snapshot, int priority){
+        snapshotTag = snapshot;
+        priorityTag = priority;
+    }
+
+    /** Called when a queued packet was dropped because it was outdated. */
+    void onDropped(int snapshot){
+        if(snapshot != -1){
+            baseline.lose(snapshot);
+        }
+    }
+
+    /**
+     * @return the amount of bytes waiting to be sent in the underlying connection.
+     * Only reliable traffic is counted, as UDP packets are not buffered; see {@link PacketScheduler#budget} for those.
+     */
+    public int pendingBytes(){
+        return 0;
+    }
+
+    /** Sends a packet through the underlying connection immediately. */
+    public abstract void write(Object object, SendMode mode);
 
     public abstract void close();
 }
@@ -0,0 +1,115 @@
+package io.anuke.mindustry.net;
+
+import io.anuke.annotations.Annotations.SendPriority;
+import io.anuke.arc.collection.Queue;
+import io.anuke.arc.util.Time;
+import io.anuke.mindustry.net.Packets.InvokePacket;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Queues the unreliable packets the server sends to one client, and sends them within a bandwidth budget.
+ * Each tick, queued packets are sent in order of {@link SendPriority}, until the budget is used up or the connection
+ * reports that its send buffer is backing up. Packets that have waited too long are dropped, as they are outdated.
+ */
+public class PacketScheduler{
+    /** Bytes of unreliable packets that may be sent to each client per tick. */
+    public static int budget = 1500;
+    /**
+     * Amount of queued bytes in a connection's send buffer at which unreliable packets are held back.
+     * This only sees the TCP buffer, so it does not apply to packets sent over UDP, which are limited by the budget alone.
+     */
+    public static int congestionLimit = 4096;
+    /** Maximum time a packet of each priority may wait in the queue, in ticks. */
+    private static final float[] maxAge = {30f, 20f, 10f, 5f};
+    /** Approximate size of a packet's header. */
+    private static final int headerSize = 6;
+
+    @SuppressWarnings("unchecked")
+    private final Queue<Entry>[] queues = new Queue[SendPriority.values().length];
+    private float allowance;
+    private int queuedBytes, dropped;
+
+    {
+        for(int i = 0; i < queues.length; i++){
+            queues[i] = new Queue<>();
+        }
+    }
+
+    /**
+     * Queues a copy of a packet, as the original's buffer is reused.
+     * @param priority the send priority, or -1 to use the packet's own.
+     * @param snapshot ID of the snapshot this packet is a part of, or -1
+     */
+    public void add(InvokePacket packet, int priority, int snapshot){
+        InvokePacket copy = new InvokePacket();
+        copy.type = packet.type;
+        copy.priority = packet.priority;
+        copy.writeLength = packet.writeLength;
+        copy.writeBuffer = ByteBuffer.allocate(packet.writeLength);
+        for(int i = 0; i < packet.writeLength; i++){
+            copy.writeBuffer.put(i, packet.writeBuffer.get(i));
+        }
+
+        int index = Math.min(priority == -1 ? packet.sendPriority : priority, queues.length - 1);
+        queues[index].addLast(new Entry(copy, Time.time(), snapshot));
+        queuedBytes += copy.writeLength + headerSize;
+    }
+
+    /**
+     * Sends queued packets, highest priority first, within this tick's budget.
+     * @param pending amount of bytes still waiting in the connection's send buffer
+     */
+    public void flush(NetConnection connection, int pending){
+        allowance = Math.min(allowance + budget * Time.delta(), budget * 2f);
+
+        //drop outdated packets; queues are in order of age
+        for(int i = 0; i < queues.length; i++){
+            Queue<Entry> queue = queues[i];
+
+            while(!queue.isEmpty() && Time.time() - queue.first().time > maxAge[i]){
+                Entry entry = queue.removeFirst();
+                queuedBytes -= entry.packet.writeLength + headerSize;
+                dropped++;
+                connection.onDropped(entry.snapshot);
+            }
+        }
+
+        for(Queue<Entry> queue : queues){
+            while(!queue.isEmpty()){
+                int size = queue.first().packet.writeLength + headerSize;
+
+                //the client is not keeping up, or the budget is used up; packets larger than it go once it is full
+                if(pending > congestionLimit || (size > allowance && allowance < budget)) return;
+
+                Entry entry = queue.removeFirst();
+                queuedBytes -= size;
+                allowance -= size;
+                pending += size;
+                connection.write(entry.packet, Net.SendMode.udp);
+            }
+        }
+    }
+
+    /** @return the amount of bytes waiting to be sent. */
+    public int queuedBytes(){
+        return queuedBytes;
+    }
+
+    /** @return the total amount of packets dropped because they were outdated. */
+    public int dropped(){
+        return dropped;
+    }
+
+    private static class Entry{
+        final InvokePacket packet;
+        final float time;
+        final int snapshot;
+
+        Entry(InvokePacket packet, float time, int snapshot){
+            this.packet = packet;
+            this.time = time;
+            this.snapshot = snapshot;
+        }
+    }
+}
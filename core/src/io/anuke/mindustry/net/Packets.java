@@ -97,6 +97,8 @@ public class Packets{
 
     public static class InvokePacket implements Packet{
         public byte type, priority;
+        /** Order in which this packet is sent by the server when bandwidth is limited. Not serialized. */
+        public byte sendPriority;
 
         public ByteBuffer writeBuffer;
         public int writeLength;
@@ -0,0 +1,104 @@
+package io.anuke.mindustry.net;
+
+import io.anuke.arc.collection.IntIntMap;
+import io.anuke.arc.collection.IntSet;
+
+/**
+ * The state of a client's world as of the snapshots sent to it, used to only send what changed.
+ * States are identified by a hash of their serialized bytes and the ID of the first snapshot that carried them.
+ * A state is left out of snapshots once the client has acknowledged that snapshot, and sent again until then.
+ * Every few snapshots, the baseline is cleared and everything is sent, which recovers from partially lost snapshots.
+ */
+public class SnapshotBaseline{
+    /** Every this many snapshots, all states are sent. */
+    public static final int keyframeInterval = 10;
+
+    /** ID of the snapshot being written. */
+    private int snapshotID = -1;
+    /** ID of the last snapshot the client has recieved. */
+    private int acknowledged = -1;
+    private final IntIntMap hashes = new IntIntMap(), sentIn = new IntIntMap();
+    /** IDs of snapshots that were partially dropped before being sent. */
+    private final IntSet lost = new IntSet();
+
+    /** Starts writing the next snapshot. @return its ID */
+    public int begin(){
+        snapshotID++;
+        if(snapshotID % keyframeInterval == 0){
+            clear();
+        }
+        return snapshotID;
+    }
+
+    /** Marks a snapshot as recieved by the client. */
+    public void acknowledge(int id){
+        acknowledged = Math.max(acknowledged, Math.min(id, snapshotID));
+    }
+
+    /**
+     * Marks a snapshot as recieved by the client, along with the snapshots before it that were not recieved completely.
+     * @param incomplete a bit mask as returned by {@link SnapshotTracker#incomplete()}
+     */
+    public void acknowledge(int id, int incomplete){
+        for(int i = 0; i < SnapshotTracker.window; i++){
+            if((incomplete & (1 << i)) != 0){
+                lose(id - 1 - i);
+            }
+        }
+        acknowledge(id);
+    }
+
+    /** Forgets all sent states, so that everything is sent again. Used when the client reloads the world. */
+    public void clear(){
+        hashes.clear();
+        sentIn.clear();
+        lost.clear();
+    }
+
+    /** Marks a snapshot as incomplete, so that states it carried are sent again even once it is acknowledged. */
+    public void lose(int id){
+        lost.add(id);
+    }
+
+    /** Forgets the state of a single entity, so that it is sent again. Used when the client despawns it. */
+    public void forget(int id){
+        hashes.remove(id, 0);
+        sentIn.remove(id, 0);
+    }
+
+    /**
+     * Records a serialized state for the current snapshot.
+     * @param id a unique key for the state, such as the entity ID.
+     * @return whether the state has to be sent, because the client may not have it yet
+     */
+    public boolean changed(int id, byte[] bytes, int offset, int length){
+        return changed(id, hash(bytes, offset, length));
+    }
+
+    /** Records a state for the current snapshot by its hash, as returned by {@link #hash(byte[], int, int)}. */
+    public boolean changed(int id, int hash){
+        if(hashes.containsKey(id) && hashes.get(id, 0) == hash){
+            int sent = sentIn.get(id, 0);
+
+            if(lost.contains(sent)){
+                sentIn.put(id, snapshotID);
+                return true;
+            }
+            return sent > acknowledged;
+        }
+
+        hashes.put(id, hash);
+        sentIn.put(id, snapshotID);
+        return true;
+    }
+
+    /** @return the hash a serialized state is identified by. */
+    public static int hash(byte[] bytes, int offset, int length){
+        //FNV-1a
+        int hash = 0x811c9dc5;
+        for(int i = offset; i < offset + length; i++){
+            hash = (hash ^ bytes[i]) * 0x01000193;
+        }
+        return hash ^ length;
+    }
+}
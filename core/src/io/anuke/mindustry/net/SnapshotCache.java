@@ -0,0 +1,105 @@
+package io.anuke.mindustry.net;
+
+import io.anuke.arc.collection.*;
+import io.anuke.arc.util.io.ReusableByteOutStream;
+import io.anuke.mindustry.entities.traits.SyncTrait;
+
+import java.io.*;
+
+/**
+ * Shares the work of writing snapshots between all players that are synced in the same tick.
+ * Each entity is serialized at most once per tick, and chunks with the same contents are only compressed once.
+ */
+public class SnapshotCache{
+    private final ReusableByteOutStream stream = new ReusableByteOutStream();
+    private final DataOutputStream data = new DataOutputStream(stream);
+
+    /** Maps entity IDs to their entry index. */
+    private final IntIntMap entries = new IntIntMap();
+    private final IntArray offsets = new IntArray(), lengths = new IntArray(), hashes = new IntArray();
+
+    /** Compressed chunks by the hash of their uncompressed bytes. */
+    private final IntMap<Chunk> chunks = new IntMap<>();
+
+    /** Clears everything cached. Called at the start of each tick in which snapshots are written. */
+    public void clear(){
+        stream.reset();
+        entries.clear();
+        offsets.clear();
+        lengths.clear();
+        hashes.clear();
+        chunks.clear();
+    }
+
+    /**
+     * Serializes an entity with its ID and type, unless that has already been done this tick.
+     * @return the index of the entry its bytes can be retrieved by
+     */
+    public int serialize(SyncTrait entity) throws IOException{
+        int entry = entries.get(entity.getID(), -1);
+        if(entry != -1) return entry;
+
+        int offset = stream.size();
+        data.writeInt(entity.getID());
+        data.writeByte(entity.getTypeID().id);
+        entity.write(data);
+
+        entry = offsets.size;
+        offsets.add(offset);
+        lengths.add(stream.size() - offset);
+        hashes.add(SnapshotBaseline.hash(stream.getBytes(), offset, stream.size() - offset));
+        entries.put(entity.getID(), entry);
+        return entry;
+    }
+
+    /** @return the buffer holding all serialized entities. Only valid until the next serialization. */
+    public byte[] bytes(){
+        return stream.getBytes();
+    }
+
+    public int offset(int entry){
+        return offsets.get(entry);
+    }
+
+    public int length(int entry){
+        return lengths.get(entry);
+    }
+
+    public int hash(int entry){
+        return hashes.get(entry);
+    }
+
+    /** @return these bytes in compressed form, reusing the result of an identical chunk compressed earlier this tick. */
+    public byte[] compress(byte[] bytes, int length){
+        int hash = SnapshotBaseline.hash(bytes, 0, length);
+        Chunk chunk = chunks.get(hash);
+
+        if(chunk != null && chunk.matches(bytes, length)){
+            return chunk.compressed;
+        }
+
+        byte[] raw = new byte[length];
+        System.arraycopy(bytes, 0, raw, 0, length);
+        chunk = new Chunk(raw, Net.compressSnapshot(raw));
+        chunks.put(hash, chunk);
+        return chunk.compressed;
+    }
+
+    private static class Chunk{
+        final byte[] raw, compressed;
+
+        Chunk(byte[] raw, byte[] compressed){
+            this.raw = raw;
+            this.compressed = compressed;
+        }
+
+        boolean matches(byte[] bytes, int length){
+            if(raw.length != length) return false;
+
+            for(int i = 0; i < length; i++){
+                if(raw[i] != bytes[i]) return false;
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package io.anuke.mindustry.net;
+
+import io.anuke.arc.collection.IntIntMap;
+
+/**
+ * Tracks which snapshots a client has fully recieved, to acknowledge them to the server.
+ * A snapshot consists of a state snapshot, which carries the amount of entity chunks sent with it, and those chunks.
+ * Both are unreliable and may be lost or arrive in any order, so a snapshot is only complete once all of them arrived.
+ */
+public class SnapshotTracker{
+    /** Amount of snapshots before the last complete one that are reported as incomplete, see {@link #incomplete()}. */
+    public static final int window = 32;
+
+    private final int[] ids = new int[window * 2], chunks = new int[window * 2], expected = new int[window * 2];
+    /** Maps entity IDs to the ID of the last snapshot their state was read from. */
+    private final IntIntMap entities = new IntIntMap();
+    private int complete = -1;
+
+    public SnapshotTracker(){
+        reset();
+    }
+
+    public void reset(){
+        complete = -1;
+        entities.clear();
+        for(int i = 0; i < ids.length; i++){
+            ids[i] = -1;
+        }
+    }
+
+    /** Records the state snapshot of a snapshot, and the amount of entity chunks sent with it. */
+    public void stateRecieved(int id, int chunkAmount){
+        int slot = slot(id);
+        if(slot < 0) return;
+        expected[slot] = chunkAmount;
+        check(id, slot);
+    }
+
+    /** Records an entity chunk of a snapshot. */
+    public void chunkRecieved(int id){
+        int slot = slot(id);
+        if(slot < 0) return;
+        chunks[slot]++;
+        check(id, slot);
+    }
+
+    /**
+     * Records that the state of an entity is being read from a snapshot.
+     * @return false if a newer snapshot already carried its state, in which case this one must not be applied
+     */
+    public boolean entityRecieved(int entity, int id){
+        if(entities.get(entity, -1) > id) return false;
+        entities.put(entity, id);
+        return true;
+    }
+
+    /** Forgets which snapshot an entity was last read from. Used when it is despawned. */
+    public void forget(int entity){
+        entities.remove(entity, -1);
+    }
+
+    /** @return the ID of the last snapshot that was recieved completely, or -1 */
+    public int acknowledged(){
+        return complete;
+    }
+
+    /**
+     * @return a bit mask of the snapshots before {@link #acknowledged()} that were not recieved completely.
+     * Bit i stands for the snapshot with ID {@code acknowledged() - 1 - i}.
+     */
+    public int incomplete(){
+        int mask = 0;
+        for(int i = 0; i < window; i++){
+            int id = complete - 1 - i;
+            if(id < 0) break;
+
+            int slot = id % ids.length;
+            if(ids[slot] != id || expected[slot] != chunks[slot]){
+                mask |= 1 << i;
+            }
+        }
+        return mask;
+    }
+
+    /** @return the slot a snapshot is tracked in, or -1 if it is too old to be tracked */
+    private int slot(int id){
+        int slot = id % ids.length;
+        if(ids[slot] > id) return -1;
+        if(ids[slot] != id){
+            ids[slot] = id;
+            chunks[slot] = 0;
+            expected[slot] = -1;
+        }
+        return slot;
+    }
+
+    private void check(int id, int slot){
+        if(expected[slot] == chunks[slot]){
+            complete = Math.max(complete, id);
+        }
+    }
+}
@@ -1,7 +1,6 @@
 package io.anuke.mindustry.type;
 
 import io.anuke.arc.collection.Array;
-import io.anuke.arc.collection.ObjectMap;
 import io.anuke.arc.function.Supplier;
 import io.anuke.arc.graphics.Color;
 import io.anuke.arc.math.Mathf;
@@ -13,14 +12,16 @@ import io.anuke.mindustry.entities.type.Unit;
 import io.anuke.mindustry.entities.units.Statuses.StatusEntry;
 import io.anuke.mindustry.game.Content;
 
+import static io.anuke.mindustry.Vars.content;
+
 public class StatusEffect extends Content{
     public float damageMultiplier = 1f; //damage dealt
     public float armorMultiplier = 1f; //armor points
     public float speedMultiplier = 1f; //speed
     public Color color = Color.WHITE.cpy(); //tint color
 
-    /** Transition handler map. */
-    private ObjectMap<StatusEffect, TransitionHandler> transitions = new ObjectMap<>();
+    /** Transition handlers, indexed by the ID of the effect being applied. */
+    private TransitionHandler[] transitions = {};
     /**
      * Transition initializer array. Since provided effects are only available after init(), this handles putting things
      * in the transitions map.
@@ -35,10 +36,15 @@ public class StatusEffect extends Content{
     @SuppressWarnings("unchecked")
     @Override
     public void init(){
+        if(id >= 64){
+            throw new IllegalArgumentException("Status effect IDs must be below 64, as units store active effects in a bitmask.");
+        }
+
+        transitions = new TransitionHandler[content.getBy(ContentType.status).size];
         for(Object[] pair : transInit){
             Supplier<StatusEffect> sup = (Supplier<StatusEffect>)pair[0];
             TransitionHandler handler = (TransitionHandler)pair[1];
-            transitions.put(sup.get(), handler);
+            transitions[sup.get().id] = handler;
         }
         transInit.clear();
     }
@@ -75,7 +81,7 @@ public class StatusEffect extends Content{
     }
 
     public boolean reactsWith(StatusEffect effect){
-        return transitions.containsKey(effect);
+        return effect.id < transitions.length && transitions[effect.id] != null;
     }
 
     /**
@@ -85,8 +91,8 @@ public class StatusEffect extends Content{
      * @param newTime The time that the new status effect will last
      */
     public StatusEntry getTransition(Unit unit, StatusEffect to, float time, float newTime, StatusEntry result){
-        if(transitions.containsKey(to)){
-            transitions.get(to).handle(unit, time, newTime, result);
+        if(reactsWith(to)){
+            transitions[to.id].handle(unit, time, newTime, result);
             return result;
         }
 
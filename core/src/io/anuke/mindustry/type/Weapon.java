@@ -67,7 +67,7 @@ public class Weapon{
         this.name = "";
     }
 
-    @Remote(targets = Loc.server, called = Loc.both, unreliable = true)
+    @Remote(targets = Loc.server, called = Loc.both, unreliable = true, sendPriority = SendPriority.bullets)
     public static void onPlayerShootWeapon(Player player, float x, float y, float rotation, boolean left){
 
         if(player == null) return;
@@ -80,7 +80,7 @@ public class Weapon{
         shootDirect(player, x, y, rotation, left);
     }
 
-    @Remote(targets = Loc.server, called = Loc.both, unreliable = true)
+    @Remote(targets = Loc.server, called = Loc.both, unreliable = true, sendPriority = SendPriority.bullets)
     public static void onGenericShootWeapon(ShooterTrait shooter, float x, float y, float rotation, boolean left){
         if(shooter == null) return;
         shootDirect(shooter, x, y, rotation, left);
@@ -534,6 +534,11 @@ public class Block extends BlockStorage{
         entity.damage(bullet.damage());
     }
 
+    /** Called when lightning strikes this block. */
+    public void handleLightningHit(TileEntity entity, float damage, float x, float y){
+        entity.damage(damage);
+    }
+
     public void update(Tile tile){
     }
 
@@ -553,6 +558,7 @@ public class Block extends BlockStorage{
                 int amount = tile.entity.items.get(item);
                 explosiveness += item.explosiveness * amount;
                 flammability += item.flammability * amount;
+                if(amount > 0) state.stats.flow.item(tile.getTeam(), ResourceFlow.Flow.lost, item, amount);
             }
         }
 
@@ -73,10 +73,6 @@ public class Build{
             return false;
         }
 
-        if((type.solid || type.solidifes) && Units.anyEntities(x * tilesize + type.offset() - type.size*tilesize/2f, y * tilesize + type.offset() - type.size*tilesize/2f, type.size * tilesize, type.size*tilesize)){
-            return false;
-        }
-
         //check for enemy cores
         for(Team enemy : state.teams.enemiesOf(team)){
             for(Tile core : state.teams.get(enemy).cores){
@@ -91,51 +87,57 @@ public class Build{
 
         if(tile == null) return false;
 
-        if(type.isMultiblock()){
-            if(type.canReplace(tile.block()) && tile.block().size == type.size && type.canPlaceOn(tile) && tile.interactable(team)){
-                return true;
-            }
+        boolean valid;
 
-            if(!contactsGround(tile.x, tile.y, type)){
-                return false;
-            }
-
-            if(!type.canPlaceOn(tile)){
-                return false;
-            }
-
-            int offsetx = -(type.size - 1) / 2;
-            int offsety = -(type.size - 1) / 2;
-            for(int dx = 0; dx < type.size; dx++){
-                for(int dy = 0; dy < type.size; dy++){
-                    Tile other = world.tile(x + dx + offsetx, y + dy + offsety);
-                    if(other == null || (other.block() != Blocks.air && !other.block().alwaysReplace) ||
-                    !other.floor().placeableOn ||
-                    (other.floor().isDeep() && !type.floating)){
-                        return false;
-                    }
-                }
-            }
-            return true;
+        if(type.isMultiblock()){
+            valid = (type.canReplace(tile.block()) && tile.block().size == type.size && type.canPlaceOn(tile) && tile.interactable(team))
+            || (type.canPlaceOn(tile) && world.placement.footprintValid(x, y, type));
         }else{
-            return tile.interactable(team)
-            && contactsGround(tile.x, tile.y, type)
+            valid = tile.interactable(team)
+            && contactsGround(tile.x, tile.y, type.size)
             && (!tile.floor().isDeep() || type.floating)
             && tile.floor().placeableOn
             && ((type.canReplace(tile.block())
             && !(type == tile.block() && rotation == tile.rotation() && type.rotate)) || tile.block().alwaysReplace || tile.block() == Blocks.air)
             && tile.block().isMultiblock() == type.isMultiblock() && type.canPlaceOn(tile);
         }
+
+        //units move every tick, so they are checked last and never cached
+        return valid && !((type.solid || type.solidifes) && Units.anyEntities(x * tilesize + type.offset() - type.size*tilesize/2f, y * tilesize + type.offset() - type.size*tilesize/2f, type.size * tilesize, type.size*tilesize));
+    }
+
+    /**
+     * Returns whether every tile covered by a multiblock is free and can be built on, and whether it would touch ground.
+     * Results are cached by {@link PlacementCache}.
+     */
+    static boolean footprintValid(int x, int y, int size, boolean floating){
+        if(!contactsGround(x, y, size)){
+            return false;
+        }
+
+        int offsetx = -(size - 1) / 2;
+        int offsety = -(size - 1) / 2;
+        for(int dx = 0; dx < size; dx++){
+            for(int dy = 0; dy < size; dy++){
+                Tile other = world.tile(x + dx + offsetx, y + dy + offsety);
+                if(other == null || (other.block() != Blocks.air && !other.block().alwaysReplace) ||
+                !other.floor().placeableOn ||
+                (other.floor().isDeep() && !floating)){
+                    return false;
+                }
+            }
+        }
+        return true;
     }
 
-    private static boolean contactsGround(int x, int y, Block block){
-        if(block.isMultiblock()){
-            for(Point2 point : Edges.getInsideEdges(block.size)){
+    private static boolean contactsGround(int x, int y, int size){
+        if(size > 1){
+            for(Point2 point : Edges.getInsideEdges(size)){
                 Tile tile = world.tile(x + point.x, y + point.y);
                 if(tile != null && !tile.floor().isDeep()) return true;
             }
 
-            for(Point2 point : Edges.getEdges(block.size)){
+            for(Point2 point : Edges.getEdges(size)){
                 Tile tile = world.tile(x + point.x, y + point.y);
                 if(tile != null && !tile.floor().isDeep()) return true;
             }
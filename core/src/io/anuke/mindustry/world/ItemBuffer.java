@@ -23,6 +23,10 @@ public class ItemBuffer{
         return index < buffer.length;
     }
 
+    public boolean isEmpty(){
+        return index == 0;
+    }
+
     public void accept(Item item, short data){
         //if(!accepts()) return;
         buffer[index++] = Pack.longInt(Float.floatToIntBits(Time.time()), Pack.shortInt((short)item.id, data));
@@ -0,0 +1,81 @@
+package io.anuke.mindustry.world;
+
+import io.anuke.arc.Events;
+import io.anuke.mindustry.game.EventType.WorldLoadEvent;
+
+import java.util.Arrays;
+
+import static io.anuke.mindustry.Vars.world;
+
+/**
+ * Caches the part of {@link Build#validPlace} that only depends on the tiles under and around a multiblock:
+ * whether every covered tile is free and placeable, and whether the block would touch ground.
+ * Results are computed on first use and stored per block size. They are cleared around a tile as soon as it changes.
+ */
+public class PlacementCache{
+    private static final byte unknown = 0, invalid = 1, valid = 2;
+
+    private int width, height;
+    /** Per block size: footprint state of each tile for non-floating blocks in the low 2 bits, and for floating blocks in the next 2. */
+    private byte[][] states = {};
+
+    public PlacementCache(){
+        Events.on(WorldLoadEvent.class, event -> reset(world.width(), world.height()));
+    }
+
+    /** @return whether a multiblock of this type could be built here, ignoring replacement, team and unit checks. */
+    public boolean footprintValid(int x, int y, Block type){
+        if(x < 0 || y < 0 || x >= width || y >= height){
+            return Build.footprintValid(x, y, type.size, type.floating);
+        }
+
+        if(type.size >= states.length){
+            states = Arrays.copyOf(states, type.size + 1);
+        }
+        if(states[type.size] == null){
+            states[type.size] = new byte[width * height];
+        }
+
+        byte[] state = states[type.size];
+        int index = x + y * width;
+        int shift = type.floating ? 2 : 0;
+        int result = (state[index] >> shift) & 3;
+
+        if(result == unknown){
+            result = Build.footprintValid(x, y, type.size, type.floating) ? valid : invalid;
+            state[index] |= result << shift;
+        }
+
+        return result == valid;
+    }
+
+    /** Clears all cached results that may depend on this tile. Called whenever a tile changes. */
+    public void invalidate(Tile tile){
+        //tiles of a different world than the cached one, such as in the editor
+        if(tile.x >= width || tile.y >= height) return;
+
+        for(int size = 1; size < states.length; size++){
+            byte[] state = states[size];
+            if(state == null) continue;
+
+            //covered tiles and the ring of edge tiles around them
+            int minx = Math.max(tile.x - size - 1, 0), maxx = Math.min(tile.x + size + 1, width - 1);
+            int miny = Math.max(tile.y - size - 1, 0), maxy = Math.min(tile.y + size + 1, height - 1);
+
+            for(int y = miny; y <= maxy; y++){
+                Arrays.fill(state, minx + y * width, maxx + y * width + 1, unknown);
+            }
+        }
+    }
+
+    /** Clears all cached results, and disables the cache until the next world is loaded. */
+    public void clear(){
+        reset(0, 0);
+    }
+
+    private void reset(int width, int height){
+        this.width = width;
+        this.height = height;
+        this.states = new byte[0][];
+    }
+}
@@ -5,9 +5,13 @@ import io.anuke.arc.Core;
 import io.anuke.arc.Events;
 import io.anuke.arc.Graphics.Cursor;
 import io.anuke.arc.Graphics.Cursor.SystemCursor;
+import io.anuke.arc.collection.Array;
+import io.anuke.arc.collection.IntSet;
+import io.anuke.arc.collection.IntSet.IntSetIterator;
 import io.anuke.arc.graphics.g2d.Draw;
 import io.anuke.arc.graphics.g2d.TextureRegion;
 import io.anuke.arc.math.Mathf;
+import io.anuke.arc.util.Interval;
 import io.anuke.mindustry.content.Fx;
 import io.anuke.mindustry.entities.Effects;
 import io.anuke.mindustry.entities.effect.RubbleDecal;
@@ -17,18 +21,31 @@ import io.anuke.mindustry.game.EventType.BlockBuildEndEvent;
 import io.anuke.mindustry.game.Team;
 import io.anuke.mindustry.gen.*;
 import io.anuke.mindustry.graphics.*;
+import io.anuke.mindustry.net.Net;
 import io.anuke.mindustry.type.ItemStack;
 import io.anuke.mindustry.world.Block;
 import io.anuke.mindustry.world.Tile;
 import io.anuke.mindustry.world.modules.ItemModule;
 
 import java.io.*;
+import java.nio.ByteBuffer;
 
 import static io.anuke.mindustry.Vars.*;
 
 public class BuildBlock extends Block{
     public static final int maxSize = 9;
     private static final BuildBlock[] buildBlocks = new BuildBlock[maxSize];
+    /** Ticks between construction progress syncs. */
+    private static final float progressSyncTime = 10f;
+    /** Size of one site in a progress sync: position and progress. */
+    private static final int progressBytes = 6;
+    private static final int maxSyncedSites = 600;
+
+    /** Sites that builders contributed to this tick. */
+    private static final Array<BuildEntity> activeSites = new Array<>();
+    /** Positions of sites that progressed since the last progress sync. */
+    private static final IntSet changedSites = new IntSet();
+    private static final Interval syncTimer = new Interval();
 
     public BuildBlock(int size){
         super("build" + size);
@@ -48,6 +65,71 @@ public class BuildBlock extends Block{
         return buildBlocks[size - 1];
     }
 
+    /**
+     * Applies the progress builders contributed to each site this tick, once per site, and periodically sends the
+     * progress of changed sites to clients. Called once per tick by the logic, after all builders have updated.
+     */
+    public static void updateSites(){
+        for(int i = 0; i < activeSites.size; i++){
+            BuildEntity entity = activeSites.get(i);
+            entity.active = false;
+            entity.flush();
+        }
+        activeSites.clear();
+
+        if(Net.server() && !changedSites.isEmpty() && syncTimer.get(progressSyncTime)){
+            syncProgress();
+        }
+    }
+
+    private static void syncProgress(){
+        ByteBuffer buffer = ByteBuffer.allocate(Math.min(changedSites.size, maxSyncedSites) * progressBytes);
+        IntSetIterator it = changedSites.iterator();
+
+        while(it.hasNext){
+            int pos = it.next();
+            Tile tile = world.tile(pos);
+
+            //finished sites are synced by onConstructFinish and onDeconstructFinish instead
+            if(tile != null && tile.entity instanceof BuildEntity){
+                buffer.putInt(pos);
+                buffer.putShort((short)(tile.<BuildEntity>entity().progress * Short.MAX_VALUE));
+            }
+
+            if(buffer.remaining() < progressBytes){
+                Call.onConstructProgress(chunk(buffer));
+                buffer.clear();
+            }
+        }
+        changedSites.clear();
+
+        if(buffer.position() > 0){
+            Call.onConstructProgress(chunk(buffer));
+        }
+    }
+
+    private static byte[] chunk(ByteBuffer buffer){
+        byte[] bytes = new byte[buffer.position()];
+        System.arraycopy(buffer.array(), 0, bytes, 0, bytes.length);
+        return bytes;
+    }
+
+    /** Sets the progress of construction sites, as sent by the server. */
+    @Remote(called = Loc.server, unreliable = true)
+    public static void onConstructProgress(byte[] progress){
+        if(!Net.client()) return;
+
+        ByteBuffer buffer = ByteBuffer.wrap(progress);
+        while(buffer.remaining() >= progressBytes){
+            Tile tile = world.tile(buffer.getInt());
+            float value = buffer.getShort() / (float)Short.MAX_VALUE;
+
+            if(tile != null && tile.entity instanceof BuildEntity){
+                tile.<BuildEntity>entity().progress = Mathf.clamp(value);
+            }
+        }
+    }
+
     @Remote(called = Loc.server)
     public static void onDeconstructFinish(Tile tile, Block block){
         Team team = tile.getTeam();
@@ -186,7 +268,67 @@ public class BuildBlock extends Block{
         private float[] accumulator;
         private float[] totalAccumulator;
 
+        /** Progress contributed by builders this tick, applied by {@link #updateSites()}. */
+        private float pendingConstruct, pendingDeconstruct;
+        private @Nullable Unit lastBuilder;
+        private @Nullable TileEntity constructCore, deconstructCore;
+        private boolean active;
+
+        /** Contributes construction progress, which is applied together with that of other builders at the end of the tick. */
         public void construct(Unit builder, @Nullable TileEntity core, float amount){
+            //clients receive progress from the server
+            if(Net.client()) return;
+
+            pendingConstruct += amount;
+            constructCore = core;
+            contribute(builder);
+        }
+
+        /** Contributes deconstruction progress, which is applied together with that of other builders at the end of the tick. */
+        public void deconstruct(Unit builder, @Nullable TileEntity core, float amount){
+            if(Net.client()) return;
+
+            pendingDeconstruct += amount;
+            deconstructCore = core;
+            contribute(builder);
+        }
+
+        private void contribute(Unit builder){
+            lastBuilder = builder;
+            if(builder instanceof Player){
+                builderID = builder.getID();
+            }
+
+            if(!active){
+                active = true;
+                activeSites.add(this);
+            }
+        }
+
+        /** Applies the progress contributed this tick, construction first. */
+        private void flush(){
+            float construct = pendingConstruct, deconstruct = pendingDeconstruct;
+            Unit builder = lastBuilder;
+            TileEntity ccore = constructCore, dcore = deconstructCore;
+            pendingConstruct = pendingDeconstruct = 0f;
+            lastBuilder = null;
+            constructCore = deconstructCore = null;
+
+            //the site may have been finished or destroyed since
+            if(construct > 0f && isValid()){
+                applyConstruct(builder, ccore, construct);
+            }
+
+            if(deconstruct > 0f && isValid()){
+                applyDeconstruct(builder, dcore, deconstruct);
+            }
+
+            if(isValid()){
+                changedSites.add(tile.pos());
+            }
+        }
+
+        private void applyConstruct(Unit builder, @Nullable TileEntity core, float amount){
             if(cblock == null){
                 kill();
                 return;
@@ -204,16 +346,12 @@ public class BuildBlock extends Block{
 
             progress = Mathf.clamp(progress + maxProgress);
 
-            if(builder instanceof Player){
-                builderID = builder.getID();
-            }
-
             if(progress >= 1f || state.rules.infiniteResources){
                 Call.onConstructFinish(tile, cblock, builderID, tile.rotation(), builder.getTeam());
             }
         }
 
-        public void deconstruct(Unit builder, @Nullable TileEntity core, float amount){
+        private void applyDeconstruct(Unit builder, @Nullable TileEntity core, float amount){
             float deconstructMultiplier = 0.5f;
 
             if(cblock != null){
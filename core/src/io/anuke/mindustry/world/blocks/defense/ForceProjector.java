@@ -1,7 +1,6 @@
 package io.anuke.mindustry.world.blocks.defense;
 
 import io.anuke.arc.Core;
-import io.anuke.arc.function.Consumer;
 import io.anuke.arc.graphics.Blending;
 import io.anuke.arc.graphics.Color;
 import io.anuke.arc.graphics.g2d.*;
@@ -37,18 +36,6 @@ public class ForceProjector extends Block{
     protected float powerDamage = 0.1f;
     protected TextureRegion topRegion;
 
-    private static Tile paramTile;
-    private static ForceProjector paramBlock;
-    private static ForceEntity paramEntity;
-    private static Consumer<AbsorbTrait> shieldConsumer = trait -> {
-        if(trait.canBeAbsorbed() && trait.getTeam() != paramTile.getTeam() && paramBlock.isInsideHexagon(trait.getX(), trait.getY(), paramBlock.realRadius(paramEntity) * 2f, paramTile.drawx(), paramTile.drawy())){
-            trait.absorb();
-            Effects.effect(Fx.absorb, trait);
-            paramEntity.hit = 1f;
-            paramEntity.buildup += trait.getShieldDamage() * paramEntity.warmup;
-        }
-    };
-
     public ForceProjector(String name){
         super(name);
         update = true;
@@ -159,12 +146,9 @@ public class ForceProjector extends Block{
             entity.hit -= 1f / 5f * Time.delta();
         }
 
-        float realRadius = realRadius(entity);
-
-        paramTile = tile;
-        paramEntity = entity;
-        paramBlock = this;
-        bulletGroup.intersect(tile.drawx() - realRadius, tile.drawy() - realRadius, realRadius*2f, realRadius * 2f, shieldConsumer);
+        if(realRadius(entity) > 0f){
+            ShieldAbsorption.register(entity.shield);
+        }
     }
 
     float realRadius(ForceEntity entity){
@@ -242,6 +226,22 @@ public class ForceProjector extends Block{
             }
         }
 
+        public float radius(){
+            return realRadius(entity);
+        }
+
+        /** @return whether a bullet is inside this shield and can be absorbed by it. */
+        public boolean canAbsorb(AbsorbTrait trait){
+            return entity.isAdded() && trait.getTeam() != entity.getTeam() && isInsideHexagon(trait.getX(), trait.getY(), realRadius(entity) * 2f, x, y);
+        }
+
+        public void absorb(AbsorbTrait trait){
+            trait.absorb();
+            Effects.effect(Fx.absorb, trait);
+            entity.hit = 1f;
+            entity.buildup += trait.getShieldDamage() * entity.warmup;
+        }
+
         @Override
         public float drawSize(){
             return realRadius(entity) * 2f + 2f;
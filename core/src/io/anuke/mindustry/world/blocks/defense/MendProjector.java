@@ -1,7 +1,6 @@
 package io.anuke.mindustry.world.blocks.defense;
 
 import io.anuke.arc.Core;
-import io.anuke.arc.collection.IntSet;
 import io.anuke.arc.graphics.Color;
 import io.anuke.arc.graphics.g2d.*;
 import io.anuke.arc.math.Mathf;
@@ -20,7 +19,6 @@ import static io.anuke.mindustry.Vars.*;
 public class MendProjector extends Block{
     private static Color color = Color.valueOf("84f491");
     private static Color phase = Color.valueOf("ffd59e");
-    private static IntSet healed = new IntSet();
 
     protected int timerUse = timers++;
 
@@ -78,27 +76,25 @@ public class MendProjector extends Block{
             float realRange = range + entity.phaseHeat * phaseRangeBoost;
             entity.charge = 0f;
 
-            int tileRange = (int)(realRange / tilesize + 1);
-            healed.clear();
+            //only damaged blocks need healing, so look them up instead of scanning every tile in range
+            for(TileEntity other : world.indexer.getDamaged(tile.getTeam(), tile.drawx(), tile.drawy(), realRange + tilesize * 4)){
+                if(!inRange(tile, other.tile, realRange)) continue;
 
-            for(int x = -tileRange + tile.x; x <= tileRange + tile.x; x++){
-                for(int y = -tileRange + tile.y; y <= tileRange + tile.y; y++){
-                    if(!Mathf.within(x * tilesize, y * tilesize, tile.drawx(), tile.drawy(), realRange)) continue;
-
-                    Tile other = world.ltile(x, y);
-
-                    if(other == null) continue;
-
-                    if(other.getTeamID() == tile.getTeamID() && !healed.contains(other.pos()) && other.entity != null && other.entity.health < other.entity.maxHealth()){
-                        other.entity.healBy(other.entity.maxHealth() * (healPercent + entity.phaseHeat * phaseBoost) / 100f * entity.power.satisfaction);
-                        Effects.effect(Fx.healBlockFull, Tmp.c1.set(color).lerp(phase, entity.phaseHeat), other.drawx(), other.drawy(), other.block().size);
-                        healed.add(other.pos());
-                    }
-                }
+                other.healBy(other.maxHealth() * (healPercent + entity.phaseHeat * phaseBoost) / 100f * entity.power.satisfaction);
+                Effects.effect(Fx.healBlockFull, Tmp.c1.set(color).lerp(phase, entity.phaseHeat), other.drawx(), other.drawy(), other.block.size);
             }
         }
     }
 
+    /** @return whether any tile covered by a block is within range of this projector. */
+    protected boolean inRange(Tile tile, Tile other, float range){
+        int offset = -(other.block().size - 1) / 2;
+        //closest covered tile on each axis
+        int x = Mathf.clamp(Math.round(tile.drawx() / tilesize), other.x + offset, other.x + offset + other.block().size - 1);
+        int y = Mathf.clamp(Math.round(tile.drawy() / tilesize), other.y + offset, other.y + offset + other.block().size - 1);
+        return Mathf.within(x * tilesize, y * tilesize, tile.drawx(), tile.drawy(), range);
+    }
+
     @Override
     public void drawPlace(int x, int y, int rotation, boolean valid){
         Drawf.dashCircle(x * tilesize, y * tilesize, range, Pal.accent);
@@ -1,7 +1,7 @@
 package io.anuke.mindustry.world.blocks.defense;
 
 import io.anuke.arc.Core;
-import io.anuke.arc.collection.IntSet;
+import io.anuke.arc.collection.*;
 import io.anuke.arc.graphics.Color;
 import io.anuke.arc.graphics.g2d.*;
 import io.anuke.arc.math.Mathf;
@@ -18,7 +18,7 @@ import static io.anuke.mindustry.Vars.*;
 public class OverdriveProjector extends Block{
     private static Color color = Color.valueOf("feb380");
     private static Color phase = Color.valueOf("ffd59e");
-    private static IntSet healed = new IntSet();
+    private static IntIntMap coverIndex = new IntIntMap();
 
     protected int timerUse = timers++;
 
@@ -84,24 +84,54 @@ public class OverdriveProjector extends Block{
 
             entity.charge = 0f;
 
-            int tileRange = (int)(realRange / tilesize + 1);
-            healed.clear();
+            int changes = world.indexer.getChanges(tile.drawx(), tile.drawy(), range + phaseRangeBoost);
+            if(changes != entity.coverChanges){
+                updateCoverage(tile, entity);
+                entity.coverChanges = changes;
+            }
 
-            for(int x = -tileRange + tile.x; x <= tileRange + tile.x; x++){
-                for(int y = -tileRange + tile.y; y <= tileRange + tile.y; y++){
-                    if(!Mathf.within(x * tilesize, y * tilesize, tile.drawx(), tile.drawy(), realRange)) continue;
+            for(int i = 0; i < entity.covered.size; i++){
+                if(entity.coveredDst.get(i) > realRange) continue;
 
-                    Tile other = world.ltile(x, y);
+                //the tile may have changed since the list was built, as tile change events are posted
+                Tile other = world.tile(entity.covered.get(i));
 
-                    if(other == null) continue;
+                if(other.getTeamID() == tile.getTeamID() && other.entity != null && other.entity.timeScale <= realBoost){
+                    other.entity.timeScaleDuration = Math.max(other.entity.timeScaleDuration, reload + 1f);
+                    other.entity.timeScale = Math.max(other.entity.timeScale, realBoost);
+                }
+            }
+        }
+    }
 
-                    if(other.getTeamID() == tile.getTeamID() && !healed.contains(other.pos()) && other.entity != null){
-                        if(other.entity.timeScale <= realBoost){
-                            other.entity.timeScaleDuration = Math.max(other.entity.timeScaleDuration, reload + 1f);
-                            other.entity.timeScale = Math.max(other.entity.timeScale, realBoost);
-                        }
-                        healed.add(other.pos());
-                    }
+    /**
+     * Lists all blocks within the maximum range of this projector, along with the distance to their closest tile.
+     * The list only needs to be rebuilt when tiles in range change.
+     */
+    protected void updateCoverage(Tile tile, OverdriveEntity entity){
+        float maxRange = range + phaseRangeBoost;
+        int tileRange = (int)(maxRange / tilesize + 1);
+
+        entity.covered.clear();
+        entity.coveredDst.clear();
+        coverIndex.clear();
+
+        for(int x = -tileRange + tile.x; x <= tileRange + tile.x; x++){
+            for(int y = -tileRange + tile.y; y <= tileRange + tile.y; y++){
+                float dst = Mathf.dst(x * tilesize, y * tilesize, tile.drawx(), tile.drawy());
+                if(dst > maxRange) continue;
+
+                Tile other = world.ltile(x, y);
+
+                if(other == null || other.entity == null) continue;
+
+                int index = coverIndex.get(other.pos(), -1);
+                if(index == -1){
+                    coverIndex.put(other.pos(), entity.covered.size);
+                    entity.covered.add(other.pos());
+                    entity.coveredDst.add(dst);
+                }else{
+                    entity.coveredDst.set(index, Math.min(entity.coveredDst.get(index), dst));
                 }
             }
         }
@@ -141,6 +171,10 @@ public class OverdriveProjector extends Block{
         float heat;
         float charge;
         float phaseHeat;
+        /** Positions of blocks in range, and the distance to their closest tile. */
+        IntArray covered = new IntArray();
+        FloatArray coveredDst = new FloatArray();
+        int coverChanges = -1;
 
         @Override
         public void write(DataOutput stream) throws IOException{
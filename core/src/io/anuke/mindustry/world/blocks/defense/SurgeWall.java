@@ -22,4 +22,12 @@ public class SurgeWall extends Wall{
             Lightning.create(entity.getTeam(), Pal.surge, lightningDamage, bullet.x, bullet.y, bullet.rot() + 180f, lightningLength);
         }
     }
+
+    @Override
+    public void handleLightningHit(TileEntity entity, float damage, float x, float y){
+        super.handleLightningHit(entity, damage, x, y);
+        if(Mathf.chance(lightningChance)){
+            Lightning.create(entity.getTeam(), Pal.surge, lightningDamage, x, y, Mathf.random(360f), lightningLength);
+        }
+    }
 }
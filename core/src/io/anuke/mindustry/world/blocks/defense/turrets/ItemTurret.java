@@ -113,6 +113,7 @@ public class ItemTurret extends CooledTurret{
 
         BulletType type = ammo.get(item);
         entity.totalAmmo += type.ammoMultiplier;
+        entity.cons.invalidate();
 
         //find ammo entry by type
         for(int i = 0; i < entity.ammo.size; i++){
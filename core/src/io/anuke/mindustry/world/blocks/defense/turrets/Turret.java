@@ -12,6 +12,7 @@ import io.anuke.arc.math.Angles;
 import io.anuke.arc.math.Mathf;
 import io.anuke.arc.math.geom.Vector2;
 import io.anuke.arc.util.Time;
+import io.anuke.mindustry.ai.ThreatIndex;
 import io.anuke.mindustry.content.Fx;
 import io.anuke.mindustry.entities.*;
 import io.anuke.mindustry.entities.Effects.Effect;
@@ -19,6 +20,7 @@ import io.anuke.mindustry.entities.bullet.Bullet;
 import io.anuke.mindustry.entities.bullet.BulletType;
 import io.anuke.mindustry.entities.traits.TargetTrait;
 import io.anuke.mindustry.entities.type.TileEntity;
+import io.anuke.mindustry.entities.type.Unit;
 import io.anuke.mindustry.gen.*;
 import io.anuke.mindustry.graphics.*;
 import io.anuke.mindustry.world.Block;
@@ -26,6 +28,7 @@ import io.anuke.mindustry.world.Tile;
 import io.anuke.mindustry.world.meta.*;
 
 import static io.anuke.mindustry.Vars.tilesize;
+import static io.anuke.mindustry.Vars.world;
 
 public abstract class Turret extends Block{
     protected static final int targetInterval = 20;
@@ -191,10 +194,13 @@ public abstract class Turret extends Block{
     protected void findTarget(Tile tile){
         TurretEntity entity = tile.entity();
 
-        if(targetAir && !targetGround){
-            entity.target = Units.closestEnemy(tile.getTeam(), tile.drawx(), tile.drawy(), range, e -> !e.isDead() && e.isFlying());
+        int mask = (targetAir ? ThreatIndex.flying : 0) | (targetGround ? ThreatIndex.ground : 0);
+        Unit unit = world.threats.closest(tile.getTeam(), tile.drawx(), tile.drawy(), range, mask);
+
+        if(unit != null || (targetAir && !targetGround)){
+            entity.target = unit;
         }else{
-            entity.target = Units.closestTarget(tile.getTeam(), tile.drawx(), tile.drawy(), range, e -> !e.isDead() && (!e.isFlying() || targetAir) && (e.isFlying() || targetGround));
+            entity.target = Units.findEnemyTile(tile.getTeam(), tile.drawx(), tile.drawy(), range, t -> true);
         }
     }
 
@@ -217,6 +223,7 @@ public abstract class Turret extends Block{
         entry.amount -= ammoPerShot;
         if(entry.amount == 0) entity.ammo.pop();
         entity.totalAmmo -= ammoPerShot;
+        entity.cons.invalidate();
         Time.run(reload / 2f, () -> ejectEffects(tile));
         return entry.type();
     }
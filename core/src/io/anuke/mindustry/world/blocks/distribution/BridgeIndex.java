@@ -0,0 +1,67 @@
+package io.anuke.mindustry.world.blocks.distribution;
+
+import io.anuke.arc.Events;
+import io.anuke.arc.collection.*;
+import io.anuke.arc.collection.IntSet.IntSetIterator;
+import io.anuke.mindustry.game.EventType.TileChangeEvent;
+import io.anuke.mindustry.game.EventType.WorldLoadEvent;
+
+/**
+ * Tracks when bridge links need to be re-resolved.
+ * Bridges cache their validated link, incoming set and chain, and register the tiles that these depend on.
+ * When one of those tiles changes, or a bridge on it is linked or unlinked, only the bridges that depend on it are
+ * marked as stale. All bridges re-resolve when a world loads.
+ */
+public class BridgeIndex{
+    /** Maximum amount of bridges that a single chain can resolve to. Guards against very long or cyclic chains. */
+    public static final int maxChainLength = 64;
+
+    private int version;
+    /** Maps tile positions to the positions of bridges whose resolved links depend on that tile. */
+    private IntMap<IntSet> dependents = new IntMap<>();
+    /** Positions of bridges that must re-resolve their links. */
+    private IntSet stale = new IntSet();
+
+    public BridgeIndex(){
+        Events.on(TileChangeEvent.class, event -> invalidate(event.tile.pos()));
+        Events.on(WorldLoadEvent.class, event -> invalidateAll());
+    }
+
+    /** Marks all resolved bridge chains as stale. */
+    public void invalidateAll(){
+        version++;
+        dependents.clear();
+        stale.clear();
+    }
+
+    /** Marks all bridges that depend on the tile at this position as stale. */
+    public void invalidate(int pos){
+        IntSet set = dependents.remove(pos);
+        if(set == null) return;
+
+        IntSetIterator it = set.iterator();
+        while(it.hasNext){
+            stale.add(it.next());
+        }
+    }
+
+    /** Registers that the resolved links of a bridge depend on a tile. Registrations are cleared once the tile changes. */
+    public void depend(int bridge, int pos){
+        IntSet set = dependents.get(pos);
+        if(set == null){
+            dependents.put(pos, set = new IntSet());
+        }
+        set.add(bridge);
+    }
+
+    /** @return whether a bridge must re-resolve its links. */
+    public boolean isStale(int bridge, int resolvedVersion){
+        return resolvedVersion != version || stale.contains(bridge);
+    }
+
+    /** Marks a bridge as resolved. @return the version it was resolved at */
+    public int resolved(int bridge){
+        stale.remove(bridge);
+        return version;
+    }
+}
@@ -18,6 +18,12 @@ public class BufferedItemBridge extends ExtendingItemBridge{
         super(name);
         hasPower = false;
         hasItems = true;
+        idleCycleSpeed = 0f;
+    }
+
+    @Override
+    protected boolean idle(ItemBridgeEntity entity){
+        return super.idle(entity) && ((BufferedItemBridgeEntity)entity).buffer.isEmpty();
     }
 
     @Override
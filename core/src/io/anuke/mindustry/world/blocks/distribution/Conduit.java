@@ -11,8 +11,6 @@ import io.anuke.mindustry.world.blocks.LiquidBlock;
 import io.anuke.mindustry.world.modules.LiquidModule;
 
 public class Conduit extends LiquidBlock{
-    protected final int timerFlow = timers++;
-
     protected TextureRegion[] topRegions = new TextureRegion[7];
     protected TextureRegion[] botRegions = new TextureRegion[7];
 
@@ -39,6 +37,8 @@ public class Conduit extends LiquidBlock{
         super.onProximityUpdate(tile);
 
         ConduitEntity entity = tile.entity();
+        if(entity.graph != null) entity.graph.markDirty();
+
         entity.blendbits = 0;
         entity.blendrot = 0;
 
@@ -57,6 +57,14 @@ public class Conduit extends LiquidBlock{
         }
     }
 
+    @Override
+    public void onProximityRemoved(Tile tile){
+        super.onProximityRemoved(tile);
+
+        ConduitEntity entity = tile.entity();
+        if(entity.graph != null) entity.graph.markDirty();
+    }
+
     private boolean blends(Tile tile, int direction){
         Tile other = tile.getNearby(Mathf.mod(tile.rotation() - direction, 4));
         if(other != null) other = other.link();
@@ -86,8 +94,13 @@ public class Conduit extends LiquidBlock{
         ConduitEntity entity = tile.entity();
         entity.smoothLiquid = Mathf.lerpDelta(entity.smoothLiquid, entity.liquids.total() / liquidCapacity, 0.05f);
 
-        if(tile.entity.liquids.total() > 0.001f && tile.entity.timer.get(timerFlow, 1)){
-            tryMoveLiquid(tile, tile.getNearby(tile.rotation()), true, tile.entity.liquids.current());
+        if(entity.graph == null || entity.graph.isDirty()){
+            LiquidGraph.build(tile);
+        }
+
+        //the whole network is advanced at once by its first awake member
+        if(entity.liquids.total() > 0.001f){
+            entity.graph.update();
             entity.noSleep();
         }else{
             entity.sleep();
@@ -112,6 +125,7 @@ public class Conduit extends LiquidBlock{
 
     public static class ConduitEntity extends TileEntity{
         public float smoothLiquid;
+        public LiquidGraph graph;
 
         byte blendbits;
         int blendrot;
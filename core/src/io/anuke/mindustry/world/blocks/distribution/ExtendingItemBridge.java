@@ -18,8 +18,8 @@ public class ExtendingItemBridge extends ItemBridge{
     public void drawLayer(Tile tile){
         ItemBridgeEntity entity = tile.entity();
 
-        Tile other = world.tile(entity.link);
-        if(!linkValid(tile, other)) return;
+        Tile other = linkedBridge(tile);
+        if(other == null) return;
 
         int i = tile.absoluteRelativeTo(other.x, other.y);
 
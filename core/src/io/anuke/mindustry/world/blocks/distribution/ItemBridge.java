@@ -3,6 +3,7 @@ package io.anuke.mindustry.world.blocks.distribution;
 import io.anuke.annotations.Annotations.Loc;
 import io.anuke.annotations.Annotations.Remote;
 import io.anuke.arc.Core;
+import io.anuke.arc.collection.Array;
 import io.anuke.arc.collection.IntArray;
 import io.anuke.arc.collection.IntSet;
 import io.anuke.arc.collection.IntSet.IntSetIterator;
@@ -29,6 +30,8 @@ public class ItemBridge extends Block{
     protected int timerTransport = timers++;
     protected int range;
     protected float transportTime = 2f;
+    /** Cycle speed that the bridge animation settles at when there is nothing to transport. */
+    protected float idleCycleSpeed = 1f;
     protected IntArray removals = new IntArray();
     protected TextureRegion endRegion, bridgeRegion, arrowRegion;
 
@@ -53,6 +56,8 @@ public class ItemBridge extends Block{
         ItemBridgeEntity oe = other.entity();
         entity.link = other.pos();
         oe.incoming.add(tile.pos());
+        world.bridges.invalidate(tile.pos());
+        world.bridges.invalidate(other.pos());
     }
 
     @Remote(targets = Loc.both, called = Loc.server, forward = true)
@@ -62,7 +67,9 @@ public class ItemBridge extends Block{
         if(other != null){
             ItemBridgeEntity oe = other.entity();
             oe.incoming.remove(tile.pos());
+            world.bridges.invalidate(other.pos());
         }
+        world.bridges.invalidate(tile.pos());
     }
 
     @Override
@@ -166,23 +173,8 @@ public class ItemBridge extends Block{
         entity.time += entity.cycleSpeed * entity.delta();
         entity.time2 += (entity.cycleSpeed - 1f) * entity.delta();
 
-        removals.clear();
-
-        IntSetIterator it = entity.incoming.iterator();
-
-        while(it.hasNext){
-            int i = it.next();
-            Tile other = world.tile(i);
-            if(!linkValid(tile, other, false)){
-                removals.add(i);
-            }
-        }
-
-        for(int j = 0; j < removals.size; j++)
-            entity.incoming.remove(removals.get(j));
-
-        Tile other = world.tile(entity.link);
-        if(!linkValid(tile, other)){
+        Tile other = linkedBridge(tile);
+        if(other == null){
             entity.link = Pos.invalid;
             tryDump(tile);
             entity.uptime = 0f;
@@ -194,7 +186,12 @@ public class ItemBridge extends Block{
                 entity.uptime = Mathf.lerpDelta(entity.uptime, 0f, 0.02f);
             }
 
-            updateTransport(tile, other);
+            //interior bridges with nothing to carry only keep their animation running
+            if(idle(entity)){
+                entity.cycleSpeed = Mathf.lerpDelta(entity.cycleSpeed, idleCycleSpeed, 0.01f);
+            }else{
+                updateTransport(tile, other);
+            }
         }
     }
 
@@ -203,8 +200,7 @@ public class ItemBridge extends Block{
 
         if(entity.uptime >= 0.5f && entity.timer.get(timerTransport, transportTime)){
             Item item = entity.items.take();
-            if(item != null && other.block().acceptItem(item, other, tile)){
-                other.block().handleItem(item, other, tile);
+            if(item != null && passItem(tile, entity, item)){
                 entity.cycleSpeed = Mathf.lerpDelta(entity.cycleSpeed, 4f, 0.05f);
             }else{
                 entity.cycleSpeed = Mathf.lerpDelta(entity.cycleSpeed, 1f, 0.01f);
@@ -213,12 +209,116 @@ public class ItemBridge extends Block{
         }
     }
 
+    /**
+     * Passes an item down this bridge's chain. Empty, running interior bridges are skipped, so the item
+     * goes straight to the furthest bridge that can take it. Falls back to the directly linked bridge
+     * when the far end is full, so interior bridges still buffer items.
+     * @return whether the item was accepted.
+     */
+    protected boolean passItem(Tile tile, ItemBridgeEntity entity, Item item){
+        Tile other = entity.linked;
+        Tile source = tile, target = other;
+
+        for(int i = 0; i < entity.chain.size - 1; i++){
+            Tile next = entity.chain.get(i + 1);
+            if(next.block() != this) break;
+
+            ItemBridgeEntity interior = target.entity();
+            if(interior.items.total() > 0 || interior.uptime < 0.5f) break;
+
+            source = target;
+            target = next;
+        }
+
+        if(target != other && target.block().acceptItem(item, target, source)){
+            target.block().handleItem(item, target, source);
+            return true;
+        }
+
+        if(other.block().acceptItem(item, other, tile)){
+            other.block().handleItem(item, other, tile);
+            return true;
+        }
+
+        return false;
+    }
+
+    /** @return whether this bridge has nothing to transport this frame. */
+    protected boolean idle(ItemBridgeEntity entity){
+        return entity.items.total() == 0;
+    }
+
+    /**
+     * Returns the bridge this tile is validly linked to, or null if there is none.
+     * The link, incoming set and chain are only re-validated when {@link BridgeIndex} reports a change.
+     */
+    public Tile linkedBridge(Tile tile){
+        ItemBridgeEntity entity = tile.entity();
+
+        //the linked tile may have been replaced before its change event was fired
+        if(world.bridges.isStale(tile.pos(), entity.resolved) || (entity.linked != null && entity.linked.block() != this)){
+            resolve(tile, entity);
+        }
+
+        return entity.linked;
+    }
+
+    /** Re-validates the link and incoming bridges of this tile, and follows its links to find the rest of the chain. */
+    protected void resolve(Tile tile, ItemBridgeEntity entity){
+        entity.resolved = world.bridges.resolved(tile.pos());
+        entity.chain.clear();
+        world.bridges.depend(tile.pos(), tile.pos());
+
+        removals.clear();
+
+        IntSetIterator it = entity.incoming.iterator();
+
+        while(it.hasNext){
+            int i = it.next();
+            Tile other = world.tile(i);
+            if(!linkValid(tile, other, false)){
+                removals.add(i);
+            }
+        }
+
+        for(int j = 0; j < removals.size; j++)
+            entity.incoming.remove(removals.get(j));
+
+        it = entity.incoming.iterator();
+        while(it.hasNext){
+            world.bridges.depend(tile.pos(), it.next());
+        }
+
+        Tile other = world.tile(entity.link);
+        if(other != null){
+            world.bridges.depend(tile.pos(), other.pos());
+        }
+
+        if(!linkValid(tile, other)){
+            entity.linked = null;
+            return;
+        }
+
+        entity.linked = other;
+
+        Tile next = other;
+        while(next != null && next != tile && entity.chain.size < BridgeIndex.maxChainLength && !entity.chain.contains(next, true)){
+            entity.chain.add(next);
+            world.bridges.depend(tile.pos(), next.pos());
+            Tile after = world.tile(next.<ItemBridgeEntity>entity().link);
+            if(after != null){
+                world.bridges.depend(tile.pos(), after.pos());
+            }
+            next = linkValid(next, after) ? after : null;
+        }
+    }
+
     @Override
     public void drawLayer(Tile tile){
         ItemBridgeEntity entity = tile.entity();
 
-        Tile other = world.tile(entity.link);
-        if(!linkValid(tile, other)) return;
+        Tile other = linkedBridge(tile);
+        if(other == null) return;
 
         int i = tile.absoluteRelativeTo(other.x, other.y);
 
@@ -255,10 +355,9 @@ public class ItemBridge extends Block{
     public boolean acceptItem(Item item, Tile tile, Tile source){
         if(tile.getTeam() != source.getTeam()) return false;
 
-        ItemBridgeEntity entity = tile.entity();
-        Tile other = world.tile(entity.link);
+        Tile other = linkedBridge(tile);
 
-        if(linkValid(tile, other)){
+        if(other != null){
             int rel = tile.absoluteRelativeTo(other.x, other.y);
             int rel2 = tile.relativeTo(source.x, source.y);
 
@@ -274,8 +373,8 @@ public class ItemBridge extends Block{
     public boolean canDump(Tile tile, Tile to, Item item){
         ItemBridgeEntity entity = tile.entity();
 
-        Tile other = world.tile(entity.link);
-        if(!linkValid(tile, other)){
+        Tile other = linkedBridge(tile);
+        if(other == null){
             Tile edge = Edges.getFacingEdge(to, tile);
             int i = tile.absoluteRelativeTo(edge.x, edge.y);
 
@@ -325,6 +424,10 @@ public class ItemBridge extends Block{
         public float time;
         public float time2;
         public float cycleSpeed = 1f;
+        /** Resolved link state, see {@link ItemBridge#linkedBridge(Tile)}. Not saved. */
+        public Tile linked;
+        public Array<Tile> chain = new Array<>();
+        public int resolved = -1;
 
         @Override
         public void write(DataOutput stream) throws IOException{
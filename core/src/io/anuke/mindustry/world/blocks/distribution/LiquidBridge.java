@@ -8,8 +8,6 @@ import io.anuke.mindustry.type.Liquid;
 import io.anuke.mindustry.world.*;
 import io.anuke.mindustry.world.meta.BlockGroup;
 
-import static io.anuke.mindustry.Vars.world;
-
 public class LiquidBridge extends ItemBridge{
 
     public LiquidBridge(String name){
@@ -27,8 +25,9 @@ public class LiquidBridge extends ItemBridge{
         entity.time += entity.cycleSpeed * Time.delta();
         entity.time2 += (entity.cycleSpeed - 1f) * Time.delta();
 
-        Tile other = world.tile(entity.link);
-        if(!linkValid(tile, other)){
+        Tile other = linkedBridge(tile);
+        if(other == null){
+            entity.link = Pos.invalid;
             tryDumpLiquid(tile, entity.liquids.current());
         }else{
             if(entity.cons.valid()){
@@ -61,10 +60,9 @@ public class LiquidBridge extends ItemBridge{
     public boolean acceptLiquid(Tile tile, Tile source, Liquid liquid, float amount){
         if(tile.getTeam() != source.getTeam()) return false;
 
-        ItemBridgeEntity entity = tile.entity();
-        Tile other = world.tile(entity.link);
+        Tile other = linkedBridge(tile);
 
-        if(linkValid(tile, other)){
+        if(other != null){
             int rel = tile.absoluteRelativeTo(other.x, other.y);
             int rel2 = tile.relativeTo(source.x, source.y);
 
@@ -80,8 +78,8 @@ public class LiquidBridge extends ItemBridge{
     public boolean canDumpLiquid(Tile tile, Tile to, Liquid liquid){
         ItemBridgeEntity entity = tile.entity();
 
-        Tile other = world.tile(entity.link);
-        if(!linkValid(tile, other)){
+        Tile other = linkedBridge(tile);
+        if(other == null){
             Tile edge = Edges.getFacingEdge(to, tile);
             int i = tile.absoluteRelativeTo(edge.x, edge.y);
 
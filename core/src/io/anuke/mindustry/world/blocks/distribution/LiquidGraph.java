@@ -0,0 +1,244 @@
+package io.anuke.mindustry.world.blocks.distribution;
+
+import io.anuke.arc.Core;
+import io.anuke.arc.collection.*;
+import io.anuke.arc.math.Mathf;
+import io.anuke.arc.util.Time;
+import io.anuke.mindustry.entities.type.TileEntity;
+import io.anuke.mindustry.type.Liquid;
+import io.anuke.mindustry.world.Tile;
+import io.anuke.mindustry.world.blocks.distribution.Conduit.ConduitEntity;
+
+import java.util.Arrays;
+
+/**
+ * A network of connected conduits, advanced in one pass per tick.
+ * Flow between conduits of the network is computed over primitive arrays of volumes and capacities, ordered so that
+ * downstream conduits are processed first. Flow that leaves the network (into other blocks, leaks, or conduits holding
+ * a different liquid) still goes through {@link Conduit#tryMoveLiquid(Tile, Tile, boolean, Liquid)}.
+ */
+public class LiquidGraph{
+    private final static Queue<Tile> queue = new Queue<>();
+    private final static IntSet closedSet = new IntSet();
+    private final static Array<Tile> members = new Array<>();
+    private final static IntIntMap memberIndex = new IntIntMap();
+    private final static IntArray outflows = new IntArray();
+
+    /** Members of this graph, sorted downstream-first. */
+    private Tile[] tiles = {};
+    private TileEntity[] entities = {};
+    private Liquid[] liquids = {};
+    /** Index of the conduit each member flows into, or -1 if it flows out of the graph. */
+    private int[] next = {};
+    private float[] capacity = {}, volume = {}, start = {};
+    private int size;
+
+    private boolean dirty;
+    private float flowTimer;
+    private long lastFrameUpdated = -1;
+
+    /** Creates a graph containing all conduits connected to this tile, and assigns it to each of them. */
+    public static LiquidGraph build(Tile tile){
+        LiquidGraph graph = new LiquidGraph();
+        graph.reflow(tile);
+        return graph;
+    }
+
+    /** @return whether a conduit at this tile flows directly into a conduit at the other tile. */
+    public static boolean flowsInto(Tile tile, Tile other){
+        return tile != null && other != null && tile.block() instanceof Conduit && other.block() instanceof Conduit &&
+            tile.entity != null && other.entity != null && tile.getTeam() == other.getTeam() &&
+            tile.getNearby(tile.rotation()) == other && (2 + tile.relativeTo(other.x, other.y)) % 4 != other.rotation();
+    }
+
+    /** Marks this graph as needing a rebuild. Called when any member's proximity changes. */
+    public void markDirty(){
+        dirty = true;
+    }
+
+    public boolean isDirty(){
+        return dirty;
+    }
+
+    public int size(){
+        return size;
+    }
+
+    public void reflow(Tile root){
+        members.clear();
+        queue.clear();
+        closedSet.clear();
+
+        queue.addLast(root);
+        closedSet.add(root.pos());
+
+        while(queue.size > 0){
+            Tile child = queue.removeFirst();
+            members.add(child);
+            child.<ConduitEntity>entity().graph = this;
+
+            for(int i = 0; i < 4; i++){
+                Tile other = child.getNearby(i);
+                if(other != null && !closedSet.contains(other.pos()) && (flowsInto(child, other) || flowsInto(other, child))){
+                    queue.addLast(other);
+                    closedSet.add(other.pos());
+                }
+            }
+        }
+
+        size = members.size;
+        tiles = new Tile[size];
+        entities = new TileEntity[size];
+        liquids = new Liquid[size];
+        next = new int[size];
+        capacity = new float[size];
+        volume = new float[size];
+        start = new float[size];
+
+        memberIndex.clear();
+        for(int i = 0; i < size; i++){
+            memberIndex.put(members.get(i).pos(), i);
+        }
+
+        //outgoing edge of each member, in BFS order
+        int[] outgoing = new int[size];
+        for(int i = 0; i < size; i++){
+            Tile tile = members.get(i);
+            Tile front = tile.getNearby(tile.rotation());
+            outgoing[i] = flowsInto(tile, front) ? memberIndex.get(front.pos(), -1) : -1;
+        }
+
+        //reverse adjacency as linked lists, so members can be ordered from the sinks upstream
+        int[] firstIn = new int[size], nextIn = new int[size];
+        Arrays.fill(firstIn, -1);
+        for(int i = 0; i < size; i++){
+            if(outgoing[i] != -1){
+                nextIn[i] = firstIn[outgoing[i]];
+                firstIn[outgoing[i]] = i;
+            }
+        }
+
+        int[] order = new int[size], index = new int[size];
+        boolean[] visited = new boolean[size];
+        int head = 0, tail = 0;
+
+        for(int i = 0; i < size; i++){
+            if(outgoing[i] == -1){
+                order[tail++] = i;
+                visited[i] = true;
+            }
+        }
+
+        while(tail < size){
+            if(head == tail){
+                //remaining members only form cycles; start anywhere in them
+                for(int i = 0; i < size; i++){
+                    if(!visited[i]){
+                        order[tail++] = i;
+                        visited[i] = true;
+                        break;
+                    }
+                }
+            }
+
+            int current = order[head++];
+            for(int i = firstIn[current]; i != -1; i = nextIn[i]){
+                if(!visited[i]){
+                    order[tail++] = i;
+                    visited[i] = true;
+                }
+            }
+        }
+
+        for(int i = 0; i < size; i++){
+            index[order[i]] = i;
+        }
+
+        for(int i = 0; i < size; i++){
+            Tile tile = members.get(order[i]);
+            tiles[i] = tile;
+            entities[i] = tile.entity;
+            capacity[i] = tile.block().liquidCapacity;
+            next[i] = outgoing[order[i]] == -1 ? -1 : index[outgoing[order[i]]];
+        }
+
+        members.clear();
+        dirty = false;
+    }
+
+    public void update(){
+        if(Core.graphics.getFrameId() == lastFrameUpdated){
+            return;
+        }
+
+        lastFrameUpdated = Core.graphics.getFrameId();
+
+        //conduits used to flow once per tick
+        flowTimer += Time.delta();
+        if(flowTimer < 1f) return;
+        flowTimer = 0f;
+
+        solve();
+    }
+
+    private void solve(){
+        for(int i = 0; i < size; i++){
+            if(tiles[i].entity != entities[i]){
+                //removed since the last rebuild; the proximity update will rebuild this graph
+                liquids[i] = null;
+                dirty = true;
+                continue;
+            }
+
+            liquids[i] = entities[i].liquids.current();
+            volume[i] = start[i] = entities[i].liquids.currentAmount();
+        }
+
+        outflows.clear();
+
+        for(int i = 0; i < size; i++){
+            if(liquids[i] == null || volume[i] <= 0.001f) continue;
+
+            int j = next[i];
+
+            if(j == -1 || liquids[j] == null){
+                outflows.add(i);
+                continue;
+            }
+
+            if(liquids[j] != liquids[i]){
+                //mixing and reactions are rare, leave them to the regular path
+                if(start[j] > 0f || volume[j] > 0f){
+                    outflows.add(i);
+                    continue;
+                }
+                liquids[j] = liquids[i];
+            }
+
+            float fract = volume[i] / capacity[i];
+            float ofract = volume[j] / capacity[j];
+
+            if(ofract > fract) continue;
+
+            float flow = Math.min(Mathf.clamp(fract - ofract) * capacity[i], volume[i]);
+            flow = Math.min(flow, capacity[j] - volume[j] - 0.001f);
+
+            if(flow > 0f && volume[j] + flow < capacity[j]){
+                volume[j] += flow;
+                volume[i] -= flow;
+            }
+        }
+
+        for(int i = 0; i < size; i++){
+            if(liquids[i] != null && volume[i] != start[i]){
+                entities[i].liquids.add(liquids[i], volume[i] - start[i]);
+                entities[i].noSleep();
+            }
+        }
+
+        for(int k = 0; k < outflows.size; k++){
+            Tile tile = tiles[outflows.get(k)];
+            tile.block().tryMoveLiquid(tile, tile.getNearby(tile.rotation()), true, tile.entity.liquids.current());
+        }
+    }
+}
@@ -287,12 +287,7 @@ public class PowerGraph{
     }
 
     private boolean otherConsumersAreValid(Tile tile, Consume consumePower){
-        for(Consume cons : tile.block().consumes.all()){
-            if(cons != consumePower && !cons.isOptional() && !cons.valid(tile.entity())){
-                return false;
-            }
-        }
-        return true;
+        return tile.entity.cons.nonPowerValid();
     }
 
     @Override
@@ -10,6 +10,7 @@ import io.anuke.mindustry.content.*;
 import io.anuke.mindustry.entities.*;
 import io.anuke.mindustry.entities.Effects.*;
 import io.anuke.mindustry.entities.type.*;
+import io.anuke.mindustry.game.ResourceFlow.*;
 import io.anuke.mindustry.gen.*;
 import io.anuke.mindustry.graphics.*;
 import io.anuke.mindustry.type.*;
@@ -274,6 +275,7 @@ public class Drill extends Block{
         if(entity.dominantItems > 0 && entity.progress >= drillTime + hardnessDrillMultiplier * entity.dominantItem.hardness && tile.entity.items.total() < itemCapacity){
 
             offloadNear(tile, entity.dominantItem);
+            state.stats.flow.item(tile.getTeam(), Flow.produced, entity.dominantItem, 1);
 
             useContent(tile, entity.dominantItem);
 
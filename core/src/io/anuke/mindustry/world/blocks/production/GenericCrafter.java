@@ -8,6 +8,7 @@ import io.anuke.mindustry.content.*;
 import io.anuke.mindustry.entities.*;
 import io.anuke.mindustry.entities.Effects.*;
 import io.anuke.mindustry.entities.type.*;
+import io.anuke.mindustry.game.ResourceFlow.*;
 import io.anuke.mindustry.gen.*;
 import io.anuke.mindustry.type.*;
 import io.anuke.mindustry.world.*;
@@ -16,6 +17,8 @@ import io.anuke.mindustry.world.meta.*;
 
 import java.io.*;
 
+import static io.anuke.mindustry.Vars.state;
+
 public class GenericCrafter extends Block{
     protected ItemStack outputItem;
     protected LiquidStack outputLiquid;
@@ -100,9 +103,16 @@ public class GenericCrafter extends Block{
         }
 
         if(entity.progress >= 1f){
+            if(consumes.has(ConsumeType.item) && consumes.get(ConsumeType.item) instanceof ConsumeItems){
+                for(ItemStack stack : consumes.<ConsumeItems>get(ConsumeType.item).items){
+                    state.stats.flow.item(tile.getTeam(), Flow.consumed, stack.item, stack.amount);
+                }
+            }
+
             entity.cons.trigger();
 
             if(outputItem != null){
+                state.stats.flow.item(tile.getTeam(), Flow.produced, outputItem.item, outputItem.amount);
                 useContent(tile, outputItem.item);
                 for(int i = 0; i < outputItem.amount; i++){
                     offloadNear(tile, outputItem.item);
@@ -110,6 +120,7 @@ public class GenericCrafter extends Block{
             }
 
             if(outputLiquid != null){
+                state.stats.flow.liquid(tile.getTeam(), Flow.produced, outputLiquid.liquid, outputLiquid.amount);
                 useContent(tile, outputLiquid.liquid);
                 handleLiquid(tile, tile, outputLiquid.liquid, outputLiquid.amount);
             }
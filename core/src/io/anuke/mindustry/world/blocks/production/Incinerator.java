@@ -9,11 +9,14 @@ import io.anuke.mindustry.content.Fx;
 import io.anuke.mindustry.entities.Effects;
 import io.anuke.mindustry.entities.Effects.Effect;
 import io.anuke.mindustry.entities.type.TileEntity;
+import io.anuke.mindustry.game.ResourceFlow.Flow;
 import io.anuke.mindustry.type.Item;
 import io.anuke.mindustry.type.Liquid;
 import io.anuke.mindustry.world.Block;
 import io.anuke.mindustry.world.Tile;
 
+import static io.anuke.mindustry.Vars.state;
+
 public class Incinerator extends Block{
     protected Effect effect = Fx.fuelburn;
     protected Color flameColor = Color.valueOf("ffad9d");
@@ -60,6 +63,8 @@ public class Incinerator extends Block{
 
     @Override
     public void handleItem(Item item, Tile tile, Tile source){
+        state.stats.flow.item(tile.getTeam(), Flow.lost, item, 1);
+
         if(Mathf.chance(0.3)){
             Effects.effect(effect, tile.drawx(), tile.drawy());
         }
@@ -73,6 +78,8 @@ public class Incinerator extends Block{
 
     @Override
     public void handleLiquid(Tile tile, Tile source, Liquid liquid, float amount){
+        state.stats.flow.liquid(tile.getTeam(), Flow.lost, liquid, amount);
+
         if(Mathf.chance(0.02)){
             Effects.effect(effect, tile.drawx(), tile.drawy());
         }
@@ -11,6 +11,7 @@ import io.anuke.mindustry.entities.*;
 import io.anuke.mindustry.entities.traits.*;
 import io.anuke.mindustry.entities.type.*;
 import io.anuke.mindustry.game.EventType.*;
+import io.anuke.mindustry.game.ResourceFlow.*;
 import io.anuke.mindustry.gen.*;
 import io.anuke.mindustry.graphics.*;
 import io.anuke.mindustry.net.Net;
@@ -126,12 +127,19 @@ public class CoreBlock extends StorageBlock{
     public void handleItem(Item item, Tile tile, Tile source){
         if(Net.server() || !Net.active()){
             super.handleItem(item, tile, source);
+            state.stats.flow.item(tile.getTeam(), Flow.transported, item, 1);
             if(state.rules.tutorial){
                 Events.fire(new CoreItemDeliverEvent());
             }
         }
     }
 
+    @Override
+    public void handleStack(Item item, int amount, Tile tile, Unit source){
+        super.handleStack(item, amount, tile, source);
+        state.stats.flow.item(tile.getTeam(), Flow.transported, item, amount);
+    }
+
     @Override
     public void update(Tile tile){
         CoreEntity entity = tile.entity();
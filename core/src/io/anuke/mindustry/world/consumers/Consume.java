@@ -56,6 +56,14 @@ public abstract class Consume{
         return update;
     }
 
+    /**
+     * @return whether validity only depends on the contents of the entity's item, liquid and power modules.
+     * Cacheable consumers are only re-checked when one of those changes, and must not do anything in {@link #update(TileEntity)}.
+     */
+    public boolean isCacheable(){
+        return true;
+    }
+
     public abstract ConsumeType type();
 
     public abstract void build(Tile tile, Table table);
@@ -2,12 +2,15 @@ package io.anuke.mindustry.world.consumers;
 
 import io.anuke.arc.scene.ui.layout.Table;
 import io.anuke.mindustry.entities.type.TileEntity;
+import io.anuke.mindustry.game.ResourceFlow.Flow;
 import io.anuke.mindustry.type.Liquid;
 import io.anuke.mindustry.ui.ReqImage;
 import io.anuke.mindustry.world.Tile;
 import io.anuke.mindustry.world.meta.BlockStat;
 import io.anuke.mindustry.world.meta.BlockStats;
 
+import static io.anuke.mindustry.Vars.state;
+
 public class ConsumeLiquid extends ConsumeLiquidBase{
     public final Liquid liquid;
 
@@ -33,7 +36,9 @@ public class ConsumeLiquid extends ConsumeLiquidBase{
 
     @Override
     public void update(TileEntity entity){
-        entity.liquids.remove(liquid, Math.min(use(entity), entity.liquids.get(liquid)));
+        float used = Math.min(use(entity), entity.liquids.get(liquid));
+        entity.liquids.remove(liquid, used);
+        state.stats.flow.liquid(entity.getTeam(), Flow.consumed, liquid, used);
     }
 
     @Override
@@ -22,6 +22,12 @@ public abstract class ConsumeLiquidBase extends Consume{
         return ConsumeType.liquid;
     }
 
+    @Override
+    public boolean isCacheable(){
+        //liquids are used up every tick and validity depends on delta
+        return false;
+    }
+
     protected float use(TileEntity entity){
         return Math.min(amount * entity.delta(), entity.block.liquidCapacity);
     }
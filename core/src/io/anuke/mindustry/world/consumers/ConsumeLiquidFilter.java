@@ -4,6 +4,7 @@ import io.anuke.arc.collection.Array;
 import io.anuke.arc.function.Predicate;
 import io.anuke.arc.scene.ui.layout.Table;
 import io.anuke.mindustry.entities.type.TileEntity;
+import io.anuke.mindustry.game.ResourceFlow.Flow;
 import io.anuke.mindustry.type.Liquid;
 import io.anuke.mindustry.ui.MultiReqImage;
 import io.anuke.mindustry.ui.ReqImage;
@@ -13,6 +14,7 @@ import io.anuke.mindustry.world.meta.BlockStats;
 import io.anuke.mindustry.world.meta.values.LiquidFilterValue;
 
 import static io.anuke.mindustry.Vars.content;
+import static io.anuke.mindustry.Vars.state;
 
 public class ConsumeLiquidFilter extends ConsumeLiquidBase{
     public final Predicate<Liquid> filter;
@@ -43,7 +45,10 @@ public class ConsumeLiquidFilter extends ConsumeLiquidBase{
 
     @Override
     public void update(TileEntity entity){
-        entity.liquids.remove(entity.liquids.current(), use(entity));
+        Liquid liquid = entity.liquids.current();
+        float used = use(entity);
+        entity.liquids.remove(liquid, used);
+        state.stats.flow.liquid(entity.getTeam(), Flow.consumed, liquid, used);
     }
 
     @Override
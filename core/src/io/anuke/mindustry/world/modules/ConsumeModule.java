@@ -2,6 +2,7 @@ package io.anuke.mindustry.world.modules;
 
 import io.anuke.mindustry.entities.type.TileEntity;
 import io.anuke.mindustry.world.consumers.Consume;
+import io.anuke.mindustry.world.consumers.ConsumeType;
 
 import java.io.*;
 
@@ -9,6 +10,11 @@ public class ConsumeModule extends BlockModule{
     private boolean valid, optionalValid;
     private final TileEntity entity;
 
+    /** Cached validity of cacheable consumers, keyed on the module versions and power state below. */
+    private boolean cachedValid, cachedOptionalValid, cachedNonPowerValid;
+    private int itemsVersion, liquidsVersion;
+    private boolean powered, dirty = true;
+
     public ConsumeModule(TileEntity entity){
         this.entity = entity;
     }
@@ -25,8 +31,9 @@ public class ConsumeModule extends BlockModule{
         optionalValid = true;
         boolean docons = entity.block.shouldConsume(entity.tile);
 
+        //only consumers that use up resources every tick need to be checked every tick
         for(Consume cons : entity.block.consumes.all()){
-            if(cons.isOptional()) continue;
+            if(cons.isOptional() || cons.isCacheable()) continue;
 
             if(docons && cons.isUpdate() && prevValid && cons.valid(entity)){
                 cons.update(entity);
@@ -36,12 +43,67 @@ public class ConsumeModule extends BlockModule{
         }
 
         for(Consume cons : entity.block.consumes.optionals()){
+            if(cons.isCacheable()) continue;
+
             if(docons && cons.isUpdate() && prevValid && cons.valid(entity)){
                 cons.update(entity);
             }
 
             optionalValid &= cons.valid(entity);
         }
+
+        refresh();
+        valid &= cachedValid;
+        optionalValid &= cachedOptionalValid;
+    }
+
+    /** Forces cached consumer validity to be recomputed. Call when validity depends on state outside of the modules. */
+    public void invalidate(){
+        dirty = true;
+    }
+
+    /** @return whether all required consumers other than power are valid. Used by power graphs to find active consumers. */
+    public boolean nonPowerValid(){
+        refresh();
+        if(!cachedNonPowerValid) return false;
+
+        for(Consume cons : entity.block.consumes.all()){
+            if(!cons.isOptional() && !cons.isCacheable() && cons.type() != ConsumeType.power && !cons.valid(entity)){
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /** Recomputes the validity of cacheable consumers, if the item, liquid or power state has changed since last time. */
+    private void refresh(){
+        int items = entity.items == null ? 0 : entity.items.version();
+        int liquids = entity.liquids == null ? 0 : entity.liquids.version();
+        boolean power = entity.power != null && entity.power.satisfaction > 0f;
+
+        if(!dirty && items == itemsVersion && liquids == liquidsVersion && power == powered){
+            return;
+        }
+
+        dirty = false;
+        itemsVersion = items;
+        liquidsVersion = liquids;
+        powered = power;
+
+        cachedValid = cachedNonPowerValid = cachedOptionalValid = true;
+
+        for(Consume cons : entity.block.consumes.all()){
+            if(!cons.isCacheable()) continue;
+
+            boolean result = cons.valid(entity);
+
+            if(cons.isOptional()){
+                cachedOptionalValid &= result;
+            }else{
+                cachedValid &= result;
+                if(cons.type() != ConsumeType.power) cachedNonPowerValid &= result;
+            }
+        }
     }
 
     public void trigger(){
@@ -66,5 +128,6 @@ public class ConsumeModule extends BlockModule{
     @Override
     public void read(DataInput stream) throws IOException{
         valid = stream.readBoolean();
+        dirty = true;
     }
 }
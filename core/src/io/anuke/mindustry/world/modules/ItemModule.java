@@ -8,11 +8,26 @@ import java.util.Arrays;
 
 import static io.anuke.mindustry.Vars.content;
 
+/**
+ * Stores items of a tile entity.
+ * Most blocks only ever hold one or two item types, so those are stored inline, sorted by ID.
+ * Storage is promoted to a dense array over all items once a third type is added.
+ */
 public class ItemModule extends BlockModule{
-    private int[] items = new int[content.items().size];
+    /** Inline storage. id1 is only used when id0 is, and id0 < id1. -1 means an empty slot. */
+    private int id0 = -1, amount0, id1 = -1, amount1;
+    /** Dense storage, or null while items are stored inline. */
+    private int[] items;
     private int total;
+    private int version;
 
     public void forEach(ItemConsumer cons){
+        if(items == null){
+            if(id0 != -1 && amount0 > 0) cons.accept(content.item(id0), amount0);
+            if(id1 != -1 && amount1 > 0) cons.accept(content.item(id1), amount1);
+            return;
+        }
+
         for(int i = 0; i < items.length; i++){
             if(items[i] > 0){
                 cons.accept(content.item(i), items[i]);
@@ -22,6 +37,12 @@ public class ItemModule extends BlockModule{
 
     public float sum(ItemCalculator calc){
         float sum = 0f;
+        if(items == null){
+            if(id0 != -1 && amount0 > 0) sum += calc.get(content.item(id0), amount0);
+            if(id1 != -1 && amount1 > 0) sum += calc.get(content.item(id1), amount1);
+            return sum;
+        }
+
         for(int i = 0; i < items.length; i++){
             if(items[i] > 0){
                 sum += calc.get(content.item(i), items[i]);
@@ -66,7 +87,27 @@ public class ItemModule extends BlockModule{
         return total;
     }
 
+    /** @return a counter that changes every time the contents of this module change. */
+    public int version(){
+        return version;
+    }
+
+    /** @return whether this module has been promoted to dense storage. Used for memory benchmarks. */
+    public boolean isDense(){
+        return items != null;
+    }
+
     public Item take(){
+        version++;
+        if(items == null){
+            int id = id0 != -1 && amount0 > 0 ? id0 : id1 != -1 && amount1 > 0 ? id1 : -1;
+            if(id == -1) return null;
+
+            setRaw(id, getRaw(id) - 1);
+            total--;
+            return content.item(id);
+        }
+
         for(int i = 0; i < items.length; i++){
             if(items[i] > 0){
                 items[i]--;
@@ -78,30 +119,44 @@ public class ItemModule extends BlockModule{
     }
 
     public int get(Item item){
-        return items[item.id];
+        return getRaw(item.id);
     }
 
     public void set(Item item, int amount){
-        total += (amount - items[item.id]);
-        items[item.id] = amount;
+        version++;
+        total += (amount - getRaw(item.id));
+        setRaw(item.id, amount);
     }
 
     public void add(Item item, int amount){
-        items[item.id] += amount;
+        version++;
+        setRaw(item.id, getRaw(item.id) + amount);
         total += amount;
     }
 
     public void addAll(ItemModule items){
+        version++;
+        if(items.items == null){
+            if(items.id0 != -1) setRaw(items.id0, getRaw(items.id0) + items.amount0);
+            if(items.id1 != -1) setRaw(items.id1, getRaw(items.id1) + items.amount1);
+            total += items.amount0 + items.amount1;
+            return;
+        }
+
         for(int i = 0; i < items.items.length; i++){
-            this.items[i] += items.items[i];
-            total += items.items[i];
+            if(items.items[i] != 0){
+                setRaw(i, getRaw(i) + items.items[i]);
+                total += items.items[i];
+            }
         }
     }
 
     public void remove(Item item, int amount){
-        amount = Math.min(amount, items[item.id]);
+        version++;
+        int current = getRaw(item.id);
+        amount = Math.min(amount, current);
 
-        items[item.id] -= amount;
+        setRaw(item.id, current - amount);
         total -= amount;
     }
 
@@ -110,12 +165,85 @@ public class ItemModule extends BlockModule{
     }
 
     public void clear(){
-        Arrays.fill(items, 0);
+        version++;
+        if(items != null) Arrays.fill(items, 0);
+        id0 = id1 = -1;
+        amount0 = amount1 = 0;
         total = 0;
     }
 
+    private int getRaw(int id){
+        if(items != null) return items[id];
+        if(id == id0) return amount0;
+        if(id == id1) return amount1;
+        return 0;
+    }
+
+    private void setRaw(int id, int amount){
+        if(items != null){
+            items[id] = amount;
+        }else if(id == id0){
+            amount0 = amount;
+            if(amount == 0){
+                //shift the second slot down to keep slots sorted
+                id0 = id1;
+                amount0 = amount1;
+                id1 = -1;
+                amount1 = 0;
+            }
+        }else if(id == id1){
+            amount1 = amount;
+            if(amount == 0) id1 = -1;
+        }else if(amount != 0){
+            if(id0 == -1){
+                id0 = id;
+                amount0 = amount;
+            }else if(id1 == -1){
+                if(id < id0){
+                    id1 = id0;
+                    amount1 = amount0;
+                    id0 = id;
+                    amount0 = amount;
+                }else{
+                    id1 = id;
+                    amount1 = amount;
+                }
+            }else{
+                promote();
+                items[id] = amount;
+            }
+        }
+    }
+
+    private void promote(){
+        items = new int[content.items().size];
+        if(id0 != -1) items[id0] = amount0;
+        if(id1 != -1) items[id1] = amount1;
+        id0 = id1 = -1;
+        amount0 = amount1 = 0;
+    }
+
     @Override
     public void write(DataOutput stream) throws IOException{
+        if(items == null){
+            byte amount = 0;
+            if(id0 != -1 && amount0 > 0) amount++;
+            if(id1 != -1 && amount1 > 0) amount++;
+
+            stream.writeByte(amount);
+
+            if(id0 != -1 && amount0 > 0){
+                stream.writeByte(id0);
+                stream.writeInt(amount0);
+            }
+
+            if(id1 != -1 && amount1 > 0){
+                stream.writeByte(id1);
+                stream.writeInt(amount1);
+            }
+            return;
+        }
+
         byte amount = 0;
         for(int item : items){
             if(item > 0) amount++;
@@ -134,14 +262,13 @@ public class ItemModule extends BlockModule{
     @Override
     public void read(DataInput stream) throws IOException{
         //just in case, reset items
-        Arrays.fill(items, 0);
+        clear();
         byte count = stream.readByte();
-        total = 0;
 
         for(int j = 0; j < count; j++){
             int itemid = stream.readByte();
             int itemamount = stream.readInt();
-            items[content.item(itemid).id] = itemamount;
+            setRaw(content.item(itemid).id, itemamount);
             total += itemamount;
         }
     }
@@ -7,9 +7,22 @@ import java.util.Arrays;
 
 import static io.anuke.mindustry.Vars.content;
 
+/**
+ * Stores liquids of a tile entity.
+ * Like {@link ItemModule}, up to two liquid types are stored inline, and storage is promoted to a dense array
+ * over all liquids once a third type is added.
+ */
 public class LiquidModule extends BlockModule{
-    private float[] liquids = new float[content.liquids().size];
+    /** Amounts left by a removal that are closer to 0 than this are rounding residue, and are cleared. */
+    private static final float minAmount = 0.0001f;
+
+    /** Inline storage. id1 is only used when id0 is, and id0 < id1. -1 means an empty slot. */
+    private int id0 = -1, id1 = -1;
+    private float amount0, amount1;
+    /** Dense storage, or null while liquids are stored inline. */
+    private float[] liquids;
     private float total;
+    private int version;
     private Liquid current = content.liquid(0);
 
     /** Returns total amount of liquids. */
@@ -17,36 +30,55 @@ public class LiquidModule extends BlockModule{
         return total;
     }
 
+    /** @return a counter that changes every time the contents of this module change. */
+    public int version(){
+        return version;
+    }
+
+    /** @return whether this module has been promoted to dense storage. Used for memory benchmarks. */
+    public boolean isDense(){
+        return liquids != null;
+    }
+
     /** Last recieved or loaded liquid. Only valid for liquid modules with 1 type of liquid. */
     public Liquid current(){
         return current;
     }
 
     public void reset(Liquid liquid, float amount){
-        for(int i = 0; i < liquids.length; i++){
-            liquids[i] = 0f;
-        }
-        liquids[liquid.id] = amount;
+        version++;
+        clearRaw();
+        setRaw(liquid.id, amount);
         total = amount;
         current = liquid;
     }
 
     public float currentAmount(){
-        return liquids[current.id];
+        return getRaw(current.id);
     }
 
     public float get(Liquid liquid){
-        return liquids[liquid.id];
+        return getRaw(liquid.id);
     }
 
     public void clear(){
+        version++;
         total = 0;
-        Arrays.fill(liquids, 0);
+        clearRaw();
     }
 
     public void add(Liquid liquid, float amount){
-        liquids[liquid.id] += amount;
+        version++;
+        float value = getRaw(liquid.id) + amount;
         total += amount;
+
+        //free the slot instead of keeping residue in it, which would eventually promote the module
+        if(amount < 0f && Math.abs(value) < minAmount){
+            total -= value;
+            value = 0f;
+        }
+
+        setRaw(liquid.id, value);
         current = liquid;
     }
 
@@ -55,6 +87,12 @@ public class LiquidModule extends BlockModule{
     }
 
     public void forEach(LiquidConsumer cons){
+        if(liquids == null){
+            if(id0 != -1 && amount0 > 0) cons.accept(content.liquid(id0), amount0);
+            if(id1 != -1 && amount1 > 0) cons.accept(content.liquid(id1), amount1);
+            return;
+        }
+
         for(int i = 0; i < liquids.length; i++){
             if(liquids[i] > 0){
                 cons.accept(content.liquid(i), liquids[i]);
@@ -64,6 +102,12 @@ public class LiquidModule extends BlockModule{
 
     public float sum(LiquidCalculator calc){
         float sum = 0f;
+        if(liquids == null){
+            if(id0 != -1 && amount0 > 0) sum += calc.get(content.liquid(id0), amount0);
+            if(id1 != -1 && amount1 > 0) sum += calc.get(content.liquid(id1), amount1);
+            return sum;
+        }
+
         for(int i = 0; i < liquids.length; i++){
             if(liquids[i] > 0){
                 sum += calc.get(content.liquid(i), liquids[i]);
@@ -72,8 +116,84 @@ public class LiquidModule extends BlockModule{
         return sum;
     }
 
+    private float getRaw(int id){
+        if(liquids != null) return liquids[id];
+        if(id == id0) return amount0;
+        if(id == id1) return amount1;
+        return 0f;
+    }
+
+    private void setRaw(int id, float amount){
+        if(liquids != null){
+            liquids[id] = amount;
+        }else if(id == id0){
+            amount0 = amount;
+            if(amount == 0f){
+                //shift the second slot down to keep slots sorted
+                id0 = id1;
+                amount0 = amount1;
+                id1 = -1;
+                amount1 = 0f;
+            }
+        }else if(id == id1){
+            amount1 = amount;
+            if(amount == 0f) id1 = -1;
+        }else if(amount != 0f){
+            if(id0 == -1){
+                id0 = id;
+                amount0 = amount;
+            }else if(id1 == -1){
+                if(id < id0){
+                    id1 = id0;
+                    amount1 = amount0;
+                    id0 = id;
+                    amount0 = amount;
+                }else{
+                    id1 = id;
+                    amount1 = amount;
+                }
+            }else{
+                promote();
+                liquids[id] = amount;
+            }
+        }
+    }
+
+    private void clearRaw(){
+        if(liquids != null) Arrays.fill(liquids, 0);
+        id0 = id1 = -1;
+        amount0 = amount1 = 0f;
+    }
+
+    private void promote(){
+        liquids = new float[content.liquids().size];
+        if(id0 != -1) liquids[id0] = amount0;
+        if(id1 != -1) liquids[id1] = amount1;
+        id0 = id1 = -1;
+        amount0 = amount1 = 0f;
+    }
+
     @Override
     public void write(DataOutput stream) throws IOException{
+        if(liquids == null){
+            byte amount = 0;
+            if(id0 != -1 && amount0 > 0) amount++;
+            if(id1 != -1 && amount1 > 0) amount++;
+
+            stream.writeByte(amount);
+
+            if(id0 != -1 && amount0 > 0){
+                stream.writeByte(id0);
+                stream.writeFloat(amount0);
+            }
+
+            if(id1 != -1 && amount1 > 0){
+                stream.writeByte(id1);
+                stream.writeFloat(amount1);
+            }
+            return;
+        }
+
         byte amount = 0;
         for(float liquid : liquids){
             if(liquid > 0) amount++;
@@ -91,12 +211,13 @@ public class LiquidModule extends BlockModule{
 
     @Override
     public void read(DataInput stream) throws IOException{
+        version++;
         byte count = stream.readByte();
 
         for(int j = 0; j < count; j++){
             int liquidid = stream.readByte();
             float amount = stream.readFloat();
-            liquids[liquidid] = amount;
+            setRaw(liquidid, amount);
             if(amount > 0){
                 current = content.liquid(liquidid);
             }
@@ -4,6 +4,7 @@ import io.anuke.arc.*;
 import io.anuke.arc.collection.*;
 import io.anuke.arc.function.*;
 import io.anuke.arc.net.*;
+import io.anuke.arc.util.*;
 import io.anuke.arc.util.async.*;
 import io.anuke.arc.util.pooling.*;
 import io.anuke.mindustry.net.Net.*;
@@ -100,7 +101,14 @@ public class ArcNetClient implements ClientProvider{
                 updateThread.setDaemon(true);
                 updateThread.start();
 
-                client.connect(5000, ip, port);
+                try{
+                    client.connect(5000, ip, port, port);
+                }catch(SocketTimeoutException e){
+                    //UDP may not have been registered, so fall back to sending everything over TCP
+                    //if it was TCP that timed out instead, this times out as well and reports it
+                    Log.info("Failed to connect with UDP, connecting with TCP only.");
+                    client.connect(5000, ip, port);
+                }
                 success.run();
             }catch(Exception e){
                 handleException(e);
@@ -116,7 +124,11 @@ public class ArcNetClient implements ClientProvider{
     @Override
     public void send(Object object, SendMode mode){
         try{
-            client.sendTCP(object);
+            if(mode == SendMode.udp && ArcNetServer.canSendUDP(client, object)){
+                client.sendUDP(object);
+            }else{
+                client.sendTCP(object);
+            }
             //sending things can cause an under/overflow, catch it and disconnect instead of crashing
         }catch(BufferOverflowException | BufferUnderflowException e){
             Net.showError(e);
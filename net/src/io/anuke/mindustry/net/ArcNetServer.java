@@ -16,6 +16,9 @@ import java.util.concurrent.*;
 import static io.anuke.mindustry.Vars.*;
 
 public class ArcNetServer implements ServerProvider{
+    /** Maximum size of a packet sent over UDP. Larger unreliable packets are sent with TCP. */
+    static final int maxUDPSize = 1200;
+
     final Server server;
     final CopyOnWriteArrayList<ArcConnection> connections = new CopyOnWriteArrayList<>();
     final LZ4Compressor compressor = LZ4Factory.fastestInstance().fastCompressor();
@@ -112,7 +115,7 @@ public class ArcNetServer implements ServerProvider{
     @Override
     public void host(int port) throws IOException{
         connections.clear();
-        server.bind(port);
+        server.bind(port, port);
 
         serverThread = new Thread(() -> {
             try{
@@ -131,6 +134,14 @@ public class ArcNetServer implements ServerProvider{
         Threads.daemon(server::stop);
     }
 
+    /**
+     * @return whether a packet can be sent over UDP: the connection has to have registered its UDP port,
+     * and the packet has to be small enough not to be fragmented.
+     */
+    static boolean canSendUDP(Connection connection, Object object){
+        return connection.getRemoteAddressUDP() != null && object instanceof InvokePacket && ((InvokePacket)object).writeLength <= maxUDPSize;
+    }
+
     ArcConnection getByKryoID(int id){
         for(int i = 0; i < connections.size(); i++){
             ArcConnection con = connections.get(i);
@@ -156,9 +167,18 @@ public class ArcNetServer implements ServerProvider{
         }
 
         @Override
-        public void send(Object object, SendMode mode){
+        public int pendingBytes(){
+            return connection.getTcpWriteBufferSize();
+        }
+
+        @Override
+        public void write(Object object, SendMode mode){
             try{
-                connection.sendTCP(object);
+                if(mode == SendMode.udp && canSendUDP(connection, object)){
+                    connection.sendUDP(object);
+                }else{
+                    connection.sendTCP(object);
+                }
             }catch(Exception e){
                 Log.err(e);
                 Log.info("Error sending packet. Disconnecting invalid client!");
@@ -13,15 +13,18 @@ import io.anuke.mindustry.entities.Effects;
 import io.anuke.mindustry.entities.type.Player;
 import io.anuke.mindustry.game.*;
 import io.anuke.mindustry.game.EventType.GameOverEvent;
+import io.anuke.mindustry.game.ResourceFlow.Flow;
 import io.anuke.mindustry.gen.Call;
 import io.anuke.mindustry.io.SaveIO;
 import io.anuke.mindustry.maps.Map;
 import io.anuke.mindustry.maps.MapException;
 import io.anuke.mindustry.net.Administration.PlayerInfo;
 import io.anuke.mindustry.net.Net;
+import io.anuke.mindustry.net.PacketScheduler;
 import io.anuke.mindustry.net.Packets.KickReason;
 import io.anuke.mindustry.type.Item;
 import io.anuke.mindustry.type.ItemType;
+import io.anuke.mindustry.type.Liquid;
 
 import java.io.*;
 import java.net.*;
@@ -58,9 +61,12 @@ public class ServerControl implements ApplicationListener{
             "crashreport", false,
             "port", port,
             "logging", true,
-            "socket", false
+            "socket", false,
+            "bandwidth", PacketScheduler.budget
         );
 
+        PacketScheduler.budget = Core.settings.getInt("bandwidth");
+
         Log.setLogger(new LogHandler(){
             DateTimeFormatter dateTime = DateTimeFormatter.ofPattern("MM-dd-yyyy | HH:mm:ss");
 
@@ -243,6 +249,22 @@ public class ServerControl implements ApplicationListener{
             }
         });
 
+        handler.register("bandwidth", "[bytes]", "Sets or displays the bytes of unreliable data sent to each player per tick.", arg -> {
+            if(arg.length == 0){
+                info("&lyBandwidth: &lc{0} bytes per tick", PacketScheduler.budget);
+            }else{
+                int budget = Strings.parseInt(arg[0]);
+                if(budget < 100){
+                    err("Bandwidth must be a number of at least 100 bytes.");
+                    return;
+                }
+                info("&lyBandwidth set to {0} bytes per tick.", budget);
+                PacketScheduler.budget = budget;
+                Core.settings.put("bandwidth", budget);
+                Core.settings.save();
+            }
+        });
+
         handler.register("port", "[port]", "Sets or displays the port for hosting the server.", arg -> {
             if(arg.length == 0){
                 info("&lyPort: &lc{0}", Core.settings.getInt("port"));
@@ -295,7 +317,19 @@ public class ServerControl implements ApplicationListener{
 
                 info("  &ly{0} FPS, {1} MB used.", (int)(60f / Time.delta()), Core.app.getJavaHeap() / 1024 / 1024);
 
+                if(world.scheduler.backlog() > 0){
+                    info("  &lyAI: {0} decisions deferred, up to {1} ticks behind. {2} made outside of the schedule.", world.scheduler.backlog(), (int)world.scheduler.lag(), world.scheduler.forced());
+                }
+
                 if(playerGroup.size() > 0){
+                    info("  &lySnapshots: {0} KB/s, {1} B/s per player.", netServer.snapshotBandwidth() / 1024, netServer.snapshotBandwidth() / playerGroup.size());
+                    int queued = 0, dropped = 0;
+                    for(Player p : playerGroup.all()){
+                        if(p.con == null) continue;
+                        queued += p.con.scheduler.queuedBytes();
+                        dropped += p.con.scheduler.dropped();
+                    }
+                    info("  &lyUnreliable packets: {0} B queued, {1} dropped.", queued, dropped);
                     info("  &lyPlayers: {0}", playerGroup.size());
                     for(Player p : playerGroup.all()){
                         info("    &y{0} / {1}", p.name, p.uuid);
@@ -306,6 +340,37 @@ public class ServerControl implements ApplicationListener{
             }
         });
 
+        handler.register("flow", "[team]", "Display item and liquid flow rates per second for a team.", arg -> {
+            if(state.is(State.menu)){
+                err("Not playing. Host first.");
+                return;
+            }
+
+            try{
+                Team team = arg.length == 0 ? Team.sharded : Team.valueOf(arg[0]);
+                ResourceFlow flow = state.stats.flow;
+                boolean any = false;
+
+                info("&lyResource flow for team &fi{0}&fb&ly, per second:", team.name());
+
+                for(Item item : content.items()){
+                    any |= printFlow(item.name, flow.rate(team, Flow.produced, item), flow.rate(team, Flow.consumed, item),
+                        flow.rate(team, Flow.transported, item), flow.rate(team, Flow.lost, item));
+                }
+
+                for(Liquid liquid : content.liquids()){
+                    any |= printFlow(liquid.name, flow.rate(team, Flow.produced, liquid), flow.rate(team, Flow.consumed, liquid),
+                        flow.rate(team, Flow.transported, liquid), flow.rate(team, Flow.lost, liquid));
+                }
+
+                if(!any){
+                    info("  &lyNo flow recorded yet.");
+                }
+            }catch(IllegalArgumentException ignored){
+                err("No such team exists.");
+            }
+        });
+
         handler.register("say", "<message...>", "Send a message to all players.", arg -> {
             if(!state.is(State.playing)){
                 err("Not hosting. Host a game first.");
@@ -730,6 +795,15 @@ public class ServerControl implements ApplicationListener{
         }
     }
 
+    /** Prints one line of the flow command. @return whether anything was printed. */
+    private boolean printFlow(String name, float produced, float consumed, float transported, float lost){
+        if(produced <= 0f && consumed <= 0f && transported <= 0f && lost <= 0f) return false;
+
+        info("  &y{0}&lb: &lg+{1} &lr-{2} &lc>{3} &ly!{4}", name,
+            Strings.fixed(produced, 1), Strings.fixed(consumed, 1), Strings.fixed(transported, 1), Strings.fixed(lost, 1));
+        return true;
+    }
+
     private void host(){
         try{
             Net.host(Core.settings.getInt("port"));
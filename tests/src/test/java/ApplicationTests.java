@@ -1,26 +1,47 @@
 import io.anuke.arc.ApplicationCore;
 import io.anuke.arc.Core;
+import io.anuke.arc.Graphics;
 import io.anuke.arc.backends.headless.HeadlessApplication;
+import io.anuke.arc.collection.Array;
+import io.anuke.arc.collection.IntArray;
+import io.anuke.arc.math.Mathf;
 import io.anuke.arc.math.geom.Point2;
 import io.anuke.arc.util.Log;
 import io.anuke.arc.util.Time;
 import io.anuke.mindustry.Vars;
+import io.anuke.mindustry.ai.AIScheduler;
 import io.anuke.mindustry.content.*;
 import io.anuke.mindustry.core.GameState.State;
 import io.anuke.mindustry.core.*;
+import io.anuke.mindustry.entities.EntityGroup;
+import io.anuke.mindustry.entities.UnitSeparation;
+import io.anuke.mindustry.entities.effect.Puddle;
 import io.anuke.mindustry.entities.traits.BuilderTrait.BuildRequest;
 import io.anuke.mindustry.entities.type.BaseUnit;
+import io.anuke.mindustry.entities.type.Player;
 import io.anuke.mindustry.entities.type.base.*;
 import io.anuke.mindustry.game.Content;
 import io.anuke.mindustry.game.Team;
 import io.anuke.mindustry.io.BundleLoader;
 import io.anuke.mindustry.io.SaveIO;
 import io.anuke.mindustry.maps.Map;
+import io.anuke.mindustry.net.*;
+import io.anuke.mindustry.net.Net.ServerProvider;
+import io.anuke.mindustry.net.Net.SendMode;
+import io.anuke.mindustry.net.Packets.InvokePacket;
 import io.anuke.mindustry.type.ContentType;
 import io.anuke.mindustry.type.Item;
 import io.anuke.mindustry.world.*;
 import io.anuke.mindustry.world.blocks.BlockPart;
+import io.anuke.mindustry.world.blocks.BuildBlock;
+import io.anuke.mindustry.world.modules.ItemModule;
+import io.anuke.mindustry.world.modules.LiquidModule;
 import org.junit.jupiter.api.*;
+import power.FakeGraphics;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
 
 import static io.anuke.mindustry.Vars.*;
 import static org.junit.jupiter.api.Assertions.*;
@@ -124,6 +145,70 @@ public class ApplicationTests{
         world.endMapLoad();
     }
 
+    @Test
+    void closestOre(){
+        Tile[][] tiles = world.createTiles(32, 4);
+
+        world.beginMapLoad();
+        for(int x = 0; x < tiles.length; x++){
+            for(int y = 0; y < tiles[0].length; y++){
+                tiles[x][y] = new Tile(x, y);
+            }
+        }
+        tiles[0][1].setOverlay(Blocks.oreCopper);
+        tiles[16][1].setOverlay(Blocks.oreCopper);
+        world.endMapLoad();
+
+        //the closest ore is just across the quadrant border, closer than the one in the same quadrant
+        assertEquals(tiles[16][1], world.indexer.findClosestOre(15 * tilesize, tilesize, Items.copper));
+        assertEquals(tiles[0][1], world.indexer.findClosestOre(0f, tilesize, Items.copper));
+    }
+
+    @Test
+    void closestDamaged(){
+        Tile[][] tiles = world.createTiles(32, 4);
+
+        world.beginMapLoad();
+        for(int x = 0; x < tiles.length; x++){
+            for(int y = 0; y < tiles[0].length; y++){
+                tiles[x][y] = new Tile(x, y);
+            }
+        }
+        world.endMapLoad();
+
+        world.setBlock(tiles[0][1], Blocks.copperWall, Team.sharded);
+        world.setBlock(tiles[16][1], Blocks.copperWall, Team.sharded);
+        tiles[0][1].entity.damage(10f);
+        tiles[16][1].entity.damage(10f);
+
+        //the closest damaged block is just across the quadrant border, closer than the one in the same quadrant
+        assertEquals(tiles[16][1].entity, world.indexer.findDamaged(Team.sharded, 15 * tilesize, tilesize, 1000f));
+        assertEquals(tiles[0][1].entity, world.indexer.findDamaged(Team.sharded, 0f, tilesize, 1000f));
+    }
+
+    @Test
+    void placementCacheResize(){
+        createMap();
+        assertTrue(Build.validPlace(Team.sharded, 2, 2, Blocks.copperWallLarge, 0));
+
+        //a wider map, with blocks placed while it loads
+        Tile[][] tiles = world.createTiles(64, 8);
+        world.beginMapLoad();
+        for(int x = 0; x < tiles.length; x++){
+            for(int y = 0; y < tiles[0].length; y++){
+                tiles[x][y] = new Tile(x, y);
+            }
+        }
+        tiles[40][2].setBlock(Blocks.copperWall);
+        world.endMapLoad();
+
+        assertFalse(Build.validPlace(Team.sharded, 40, 2, Blocks.copperWallLarge, 0));
+        assertTrue(Build.validPlace(Team.sharded, 50, 2, Blocks.copperWallLarge, 0));
+
+        world.tile(50, 2).setBlock(Blocks.copperWall);
+        assertFalse(Build.validPlace(Team.sharded, 50, 2, Blocks.copperWallLarge, 0));
+    }
+
     @Test
     void multiblock(){
         createMap();
@@ -154,6 +239,222 @@ public class ApplicationTests{
         assertEquals(tile.entity.items.total(), 45);
     }
 
+    @Test
+    void sparseInventories() throws IOException{
+        ItemModule items = new ItemModule();
+        items.add(Items.lead, 3);
+        items.add(Items.copper, 2);
+        assertFalse(items.isDense());
+        assertEquals(Items.copper, items.take());
+
+        items.add(Items.coal, 4);
+        assertTrue(items.isDense());
+        assertEquals(8, items.total());
+        assertEquals(3, items.get(Items.lead));
+
+        //dense and inline storage must write the same bytes
+        ItemModule inline = new ItemModule();
+        inline.add(Items.lead, 3);
+        items.remove(Items.copper, 1);
+        items.remove(Items.coal, 4);
+
+        ByteArrayOutputStream denseOut = new ByteArrayOutputStream(), inlineOut = new ByteArrayOutputStream();
+        items.write(new DataOutputStream(denseOut));
+        inline.write(new DataOutputStream(inlineOut));
+        assertArrayEquals(denseOut.toByteArray(), inlineOut.toByteArray());
+
+        ItemModule read = new ItemModule();
+        read.read(new DataInputStream(new ByteArrayInputStream(denseOut.toByteArray())));
+        assertFalse(read.isDense());
+        assertEquals(3, read.get(Items.lead));
+        assertEquals(3, read.total());
+    }
+
+    @Test
+    void inventoryMemory(){
+        int size = 300;
+        Tile[][] tiles = world.createTiles(size, size);
+
+        world.beginMapLoad();
+        for(int x = 0; x < tiles.length; x++){
+            for(int y = 0; y < tiles[0].length; y++){
+                tiles[x][y] = new Tile(x, y, Blocks.stone.id, (byte)0, (byte)0);
+                tiles[x][y].setBlock((x + y) % 2 == 0 ? Blocks.conveyor : Blocks.conduit);
+            }
+        }
+        world.endMapLoad();
+
+        int modules = 0, dense = 0;
+        for(int x = 0; x < tiles.length; x++){
+            for(int y = 0; y < tiles[0].length; y++){
+                Tile tile = world.tile(x, y);
+                if(tile.entity.items != null){
+                    tile.entity.items.add(Items.copper, 1);
+                    tile.entity.items.add(Items.lead, 1);
+                    modules++;
+                    if(tile.entity.items.isDense()) dense++;
+                }
+                if(tile.entity.liquids != null){
+                    tile.entity.liquids.add(Liquids.water, 1f);
+                    modules++;
+                    if(tile.entity.liquids.isDense()) dense++;
+                }
+            }
+        }
+
+        //each inline module saves a dense array over all items or liquids
+        long saved = (long)(modules - dense) * Math.max(content.items().size, content.liquids().size) * 4;
+        Log.info("Inventory storage: {0} modules, {1} dense, ~{2} KB of arrays avoided.", modules, dense, saved / 1024);
+
+        assertEquals(size * size, modules);
+        assertEquals(0, dense);
+        assertEquals(2, world.tile(0, 0).entity.items.total());
+        assertEquals(1, world.tile(0, 0).entity.items.get(Items.lead));
+        assertEquals(1f, world.tile(1, 0).entity.liquids.get(Liquids.water));
+
+        //a third type promotes the module; residue left by removing a liquid does not count as one
+        world.tile(0, 0).entity.items.add(Items.coal, 1);
+        assertTrue(world.tile(0, 0).entity.items.isDense());
+
+        LiquidModule liquids = world.tile(1, 0).entity.liquids;
+        liquids.add(Liquids.oil, 0.3f);
+        liquids.remove(Liquids.oil, 0.1f);
+        liquids.remove(Liquids.oil, 0.2f);
+        liquids.add(Liquids.slag, 1f);
+        assertFalse(liquids.isDense());
+        assertEquals(0f, liquids.get(Liquids.oil));
+
+        //tiny amounts are kept, and the total matches the contents
+        LiquidModule tiny = new LiquidModule();
+        for(int i = 0; i < 1000; i++){
+            tiny.add(Liquids.water, 0.00001f);
+        }
+        assertEquals(0.01f, tiny.get(Liquids.water), 0.0001f);
+        assertEquals(tiny.get(Liquids.water), tiny.total(), 0.00001f);
+
+        tiny.remove(Liquids.water, tiny.get(Liquids.water) + 0.00000001f);
+        assertEquals(0f, tiny.get(Liquids.water));
+        assertEquals(0f, tiny.total(), 0.00001f);
+    }
+
+    @Test
+    void largeSpill(){
+        int size = 200;
+        Tile[][] tiles = world.createTiles(size, size);
+
+        world.beginMapLoad();
+        for(int x = 0; x < tiles.length; x++){
+            for(int y = 0; y < tiles[0].length; y++){
+                tiles[x][y] = new Tile(x, y, Blocks.stone.id, (byte)0, (byte)0);
+            }
+        }
+        world.endMapLoad();
+        state.set(State.playing);
+
+        for(int x = 0; x < size; x += 2){
+            for(int y = 0; y < size; y += 2){
+                Puddle.deposit(world.tile(x, y), Liquids.oil, 70f);
+            }
+        }
+
+        long begin = System.nanoTime();
+        for(int i = 0; i < 60; i++){
+            world.environment.update();
+            puddleGroup.updateEvents();
+        }
+        Log.info("Stepped {0} puddle cells for 60 ticks in {1}ms.", world.environment.puddleCount(), (System.nanoTime() - begin) / 1000000f);
+
+        //the spill spreads to neighbours; every cell still has an entity for drawing and sync, which reads its amount from the field
+        assertTrue(world.environment.puddleCount() > (size / 2) * (size / 2));
+        assertEquals(world.environment.puddleCount(), puddleGroup.size());
+        Puddle puddle = Puddle.getPuddle(world.tile(1, 0));
+        assertNotNull(puddle);
+        assertTrue(puddle.amount() > 0f);
+        assertEquals(Liquids.oil.flammability * puddle.amount(), puddle.getFlammability(), 0.0001f);
+    }
+
+    @Test
+    void conduitNetwork(){
+        Tile[][] tiles = world.createTiles(16, 10);
+
+        world.beginMapLoad();
+        for(int x = 0; x < tiles.length; x++){
+            for(int y = 0; y < tiles[0].length; y++){
+                tiles[x][y] = new Tile(x, y, Blocks.stone.id, (byte)0, (byte)0);
+            }
+        }
+        world.endMapLoad();
+
+        //two identical lines of conduits into a tank; the first is solved as a graph, the second conduit by conduit
+        int length = 8;
+        for(int x = 0; x < length; x++){
+            world.setBlock(world.tile(x, 1), Blocks.conduit, Team.sharded);
+            world.setBlock(world.tile(x, 6), Blocks.conduit, Team.sharded);
+        }
+        world.setBlock(world.tile(length + 1, 1), Blocks.liquidTank, Team.sharded);
+        world.setBlock(world.tile(length + 1, 6), Blocks.liquidTank, Team.sharded);
+
+        Graphics graphics = Core.graphics;
+        //every graph update needs a new frame
+        Core.graphics = new FakeGraphics();
+
+        try{
+            int ticks = 600;
+            for(int i = 0; i < ticks; i++){
+                world.tile(0, 1).entity.liquids.add(Liquids.water, 1f);
+                world.tile(0, 6).entity.liquids.add(Liquids.water, 1f);
+
+                Blocks.conduit.update(world.tile(0, 1));
+
+                //conduits used to update in the order they were placed
+                for(int x = 0; x < length; x++){
+                    Tile tile = world.tile(x, 6);
+                    tile.block().tryMoveLiquid(tile, tile.getNearby(tile.rotation()), true, tile.entity.liquids.current());
+                }
+            }
+
+            float graphed = world.tile(length + 1, 1).entity.liquids.get(Liquids.water);
+            float single = world.tile(length + 1, 6).entity.liquids.get(Liquids.water);
+
+            assertTrue(single > ticks / 2f);
+            assertEquals(single, graphed, ticks * 0.01f);
+        }finally{
+            Core.graphics = graphics;
+        }
+    }
+
+    @Test
+    void crowdSeparation(){
+        world.loadMap(testMap);
+        state.set(State.playing);
+
+        Array<BaseUnit> crowd = new Array<>();
+        for(int i = 0; i < 1000; i++){
+            BaseUnit unit = UnitTypes.dagger.create(Team.sharded);
+            unit.set(100f + Mathf.range(20f), 100f + Mathf.range(20f));
+            unit.add();
+            crowd.add(unit);
+        }
+        unitGroups[Team.sharded.ordinal()].updateEvents();
+
+        long begin = System.nanoTime();
+        UnitSeparation.update();
+        Log.info("Separated {0} units in {1}ms.", crowd.size, (System.nanoTime() - begin) / 1000000f);
+
+        //pushes are symmetric, so the crowd as a whole does not gain momentum
+        float sumx = 0f, sumy = 0f;
+        int moved = 0;
+        for(BaseUnit unit : crowd){
+            sumx += unit.velocity().x;
+            sumy += unit.velocity().y;
+            if(!unit.velocity().isZero()) moved++;
+        }
+
+        assertTrue(moved > crowd.size / 2);
+        assertEquals(0f, sumx, 0.01f);
+        assertEquals(0f, sumy, 0.01f);
+    }
+
     @Test
     void timers(){
         boolean[] ran = {false};
@@ -165,6 +466,37 @@ public class ApplicationTests{
         assertTrue(ran[0]);
     }
 
+    @Test
+    void aiSchedulerFairness(){
+        AIScheduler scheduler = new AIScheduler();
+        scheduler.maxDecisions = 10;
+
+        //30 units deciding every 2 ticks ask for 15 decisions per tick, more than the budget
+        int units = 30, ticks = 100;
+        float interval = 2f;
+        float[] due = new float[units];
+        int[] grants = new int[units];
+        Arrays.fill(due, Time.time());
+
+        for(int t = 0; t < ticks; t++){
+            Time.update();
+            scheduler.update();
+
+            for(int i = 0; i < units; i++){
+                if(scheduler.grant(due[i])){
+                    due[i] = Time.time() + interval;
+                    grants[i]++;
+                }
+            }
+        }
+
+        //every unit gets about the same share, regardless of its place in the update order
+        int share = ticks * scheduler.maxDecisions / units;
+        for(int i = 0; i < units; i++){
+            assertTrue(grants[i] >= share - 2, "Unit " + i + " was granted " + grants[i] + " decisions, expected ~" + share);
+        }
+    }
+
     @Test
     void manyTimers(){
         int runs = 100000;
@@ -262,6 +594,7 @@ public class ApplicationTests{
         Time.setDeltaProvider(() -> 9999999f);
         d1.updateBuilding();
         d2.updateBuilding();
+        BuildBlock.updateSites();
 
         assertEquals(Blocks.copperWallLarge, world.tile(0, 0).block());
         assertEquals(Blocks.air, world.tile(2, 2).block());
@@ -285,6 +618,7 @@ public class ApplicationTests{
         d1.updateBuilding();
         Time.setDeltaProvider(() -> 1f);
         d2.updateBuilding();
+        BuildBlock.updateSites();
 
         assertEquals(content.getByName(ContentType.block, "build2"), world.tile(0, 0).block());
 
@@ -292,12 +626,314 @@ public class ApplicationTests{
 
         d1.updateBuilding();
         d2.updateBuilding();
+        BuildBlock.updateSites();
 
         assertEquals(Blocks.air, world.tile(0, 0).block());
         assertEquals(Blocks.air, world.tile(2, 2).block());
         assertEquals(Blocks.air, world.tile(1, 1).block());
     }
 
+    @Test
+    void buildPlan(){
+        initBuilding();
+
+        Array<BuildRequest> requests = new Array<>();
+        for(int x = 0; x < 8; x++){
+            requests.add(new BuildRequest(x, 0, 1, Blocks.conveyor));
+        }
+        requests.add(new BuildRequest(0, 2, 0, Blocks.copperWall));
+
+        //the conveyor line is sent as a single run
+        Array<byte[]> chunks = BuildPlan.encode(requests);
+        assertEquals(1, chunks.size);
+        assertEquals(22, chunks.first().length);
+
+        Player player = new Player();
+        BuildPlan plan = new BuildPlan(1);
+        plan.add(chunks.first());
+
+        assertEquals(5, plan.validate(player, 5));
+        assertFalse(plan.isDone());
+        assertEquals(4, plan.validate(player, 100));
+        assertTrue(plan.isDone());
+
+        assertEquals(9, player.buildQueue().size);
+        assertEquals(7, player.buildQueue().get(7).x);
+        assertEquals(1, player.buildQueue().get(7).rotation);
+        assertEquals(Blocks.copperWall, player.buildQueue().last().block);
+    }
+
+    @Test
+    void rejectedBuildPlan(){
+        initBuilding();
+
+        //none of these can be broken, so the plan is dropped after too many are rejected
+        Array<BuildRequest> requests = new Array<>();
+        for(int x = 0; x < BuildPlan.maxRejected * 2; x++){
+            requests.add(new BuildRequest(x, 0));
+        }
+
+        Player player = new Player();
+        BuildPlan plan = new BuildPlan(1);
+        plan.add(BuildPlan.encode(requests).first());
+
+        assertEquals(BuildPlan.maxRejected, plan.validate(player, BuildPlan.maxRejected * 2));
+        assertTrue(plan.isDone());
+        assertEquals(0, player.buildQueue().size);
+    }
+
+    @Test
+    void entityDespawn(){
+        createMap();
+        if(netClient == null) netClient = new NetClient();
+
+        BaseUnit unit = UnitTypes.dagger.create(Team.sharded);
+        unit.set(10f, 10f);
+        unit.add();
+        EntityGroup<BaseUnit> group = unitGroups[Team.sharded.ordinal()];
+        group.updateEvents();
+
+        //what the remove listener does on clients
+        netClient.addRemovedEntity(unit.getID());
+
+        ByteBuffer buffer = ByteBuffer.allocate(5);
+        buffer.putInt(unit.getID());
+        buffer.put((byte)group.getID());
+        NetClient.onEntityDespawn(buffer.array());
+        group.updateEvents();
+
+        //despawned units may be sent again once they are back in view
+        assertNull(group.getByID(unit.getID()));
+        assertFalse(netClient.isEntityUsed(unit.getID()));
+
+        //units that died stay dead
+        netClient.addRemovedEntity(unit.getID());
+        NetClient.onEntityDespawn(buffer.array());
+        assertTrue(netClient.isEntityUsed(unit.getID()));
+    }
+
+    @Test
+    void snapshotBaseline(){
+        SnapshotBaseline baseline = new SnapshotBaseline();
+        byte[] state = {1, 2, 3}, changed = {1, 2, 4};
+
+        assertEquals(0, baseline.begin());
+        assertTrue(baseline.changed(5, state, 0, state.length));
+
+        //states are sent until the client acknowledges a snapshot that carried them
+        baseline.begin();
+        assertTrue(baseline.changed(5, state, 0, state.length));
+        baseline.acknowledge(0);
+        baseline.begin();
+        assertFalse(baseline.changed(5, state, 0, state.length));
+        assertTrue(baseline.changed(5, changed, 0, changed.length));
+
+        baseline.acknowledge(2);
+        baseline.begin();
+        assertFalse(baseline.changed(5, changed, 0, changed.length));
+
+        //states carried by a snapshot that was partially dropped are sent again
+        baseline.lose(2);
+        assertTrue(baseline.changed(5, changed, 0, changed.length));
+        baseline.acknowledge(3);
+        baseline.begin();
+        assertFalse(baseline.changed(5, changed, 0, changed.length));
+
+        //keyframes send everything
+        while(baseline.begin() % SnapshotBaseline.keyframeInterval != 0){
+            assertFalse(baseline.changed(5, changed, 0, changed.length));
+        }
+        assertTrue(baseline.changed(5, changed, 0, changed.length));
+    }
+
+    @Test
+    void snapshotTracker(){
+        SnapshotTracker tracker = new SnapshotTracker();
+
+        //snapshot 0 is complete once its state and both chunks arrived, in any order
+        tracker.chunkRecieved(0);
+        tracker.stateRecieved(0, 2);
+        assertEquals(-1, tracker.acknowledged());
+        tracker.chunkRecieved(0);
+        assertEquals(0, tracker.acknowledged());
+
+        //snapshot 1 loses a chunk, snapshot 2 arrives completely
+        tracker.stateRecieved(1, 1);
+        tracker.stateRecieved(2, 0);
+        assertEquals(2, tracker.acknowledged());
+        assertEquals(1, tracker.incomplete());
+
+        //the baseline sends states carried by the incomplete snapshot again
+        SnapshotBaseline baseline = new SnapshotBaseline();
+        byte[] state = {1, 2, 3};
+        baseline.begin();
+        baseline.begin();
+        assertTrue(baseline.changed(5, state, 0, state.length));
+        baseline.begin();
+        baseline.acknowledge(tracker.acknowledged(), tracker.incomplete());
+        baseline.begin();
+        assertTrue(baseline.changed(5, state, 0, state.length));
+
+        //older states of an entity are not applied over newer ones
+        assertTrue(tracker.entityRecieved(7, 2));
+        assertFalse(tracker.entityRecieved(7, 1));
+        assertTrue(tracker.entityRecieved(8, 1));
+    }
+
+    @Test
+    void entityInterest(){
+        EntityInterest interest = new EntityInterest();
+        float edge = 50f + EntityInterest.margin;
+
+        //units the client does not have are always sent
+        interest.begin(0f, 0f, 100f, 100f);
+        assertTrue(interest.due(1, 0, 0f, 0f));
+        assertTrue(interest.due(2, 3, edge, 0f));
+        assertEquals(0, interest.leaving().size);
+
+        //units in view are sent every snapshot, units at the edge of the margin every fourth
+        int inside = 0, outside = 0;
+        for(int i = 0; i < 8; i++){
+            interest.begin(0f, 0f, 100f, 100f);
+            if(interest.due(1, 0, 0f, 0f)) inside++;
+            if(interest.due(2, 3, edge, 0f)) outside++;
+            assertEquals(0, interest.leaving().size);
+        }
+        assertEquals(8, inside);
+        assertEquals(2, outside);
+
+        //units that are no longer in the area are despawned with their group, and sent again when they return
+        interest.begin(0f, 0f, 100f, 100f);
+        interest.due(1, 0, 0f, 0f);
+        IntArray leaving = interest.leaving();
+        assertEquals(2, leaving.size);
+        assertEquals(2, leaving.get(0));
+        assertEquals(3, leaving.get(1));
+
+        interest.begin(0f, 0f, 100f, 100f);
+        assertTrue(interest.due(2, 3, edge, 0f));
+    }
+
+    @Test
+    void snapshotCache() throws IOException{
+        int[] compressed = {0};
+        Net.setServerProvider(new ServerProvider(){
+            @Override
+            public void host(int port){
+            }
+
+            @Override
+            public void close(){
+            }
+
+            @Override
+            public byte[] compressSnapshot(byte[] input){
+                compressed[0]++;
+                return input.clone();
+            }
+
+            @Override
+            public Iterable<? extends NetConnection> getConnections(){
+                return new Array<>();
+            }
+
+            @Override
+            public NetConnection getByID(int id){
+                return null;
+            }
+        });
+
+        try{
+            createMap();
+            SnapshotCache cache = new SnapshotCache();
+
+            //entities are only serialized once
+            BaseUnit unit = UnitTypes.dagger.create(Team.sharded);
+            unit.add();
+            int entry = cache.serialize(unit);
+            assertEquals(entry, cache.serialize(unit));
+            assertTrue(cache.length(entry) > 5);
+
+            //identical chunks are only compressed once, until the cache is cleared
+            byte[] chunk = new byte[64];
+            for(int i = 0; i < chunk.length; i++){
+                chunk[i] = (byte)i;
+            }
+
+            byte[] result = cache.compress(chunk, chunk.length);
+            assertSame(result, cache.compress(chunk.clone(), chunk.length));
+            assertEquals(1, compressed[0]);
+
+            chunk[0]++;
+            assertNotSame(result, cache.compress(chunk, chunk.length));
+            assertEquals(2, compressed[0]);
+
+            cache.clear();
+            cache.compress(chunk, chunk.length);
+            assertEquals(3, compressed[0]);
+        }finally{
+            Net.setServerProvider(null);
+        }
+    }
+
+    @Test
+    void packetScheduler(){
+        Array<InvokePacket> written = new Array<>();
+        NetConnection connection = new NetConnection("test"){
+            @Override
+            public void write(Object object, SendMode mode){
+                written.add((InvokePacket)object);
+            }
+
+            @Override
+            public void close(){
+            }
+        };
+        PacketScheduler scheduler = connection.scheduler;
+
+        //higher priorities are sent first; 0 is players, 3 is effects
+        scheduler.add(packet(3, 10), -1, -1);
+        scheduler.add(packet(0, 10), -1, -1);
+        scheduler.flush(connection, 0);
+        assertEquals(2, written.size);
+        assertEquals(0, written.get(0).type);
+        assertEquals(3, written.get(1).type);
+
+        //packets wait for the next tick once the budget is used up
+        written.clear();
+        scheduler = new PacketScheduler();
+        int size = PacketScheduler.budget / 3;
+        for(int i = 0; i < 5; i++){
+            scheduler.add(packet(1, size), -1, -1);
+        }
+        scheduler.flush(connection, 0);
+        assertEquals(2, written.size);
+        assertTrue(scheduler.queuedBytes() >= size * 3);
+        scheduler.flush(connection, 0);
+        assertEquals(5, written.size);
+        assertEquals(0, scheduler.queuedBytes());
+
+        //outdated packets are dropped instead of sent
+        written.clear();
+        scheduler = new PacketScheduler();
+        scheduler.add(packet(2, 10), -1, 7);
+        Time.setDeltaProvider(() -> 60f);
+        Time.update();
+        scheduler.flush(connection, 0);
+        assertEquals(0, written.size);
+        assertEquals(1, scheduler.dropped());
+        assertEquals(0, scheduler.queuedBytes());
+    }
+
+    InvokePacket packet(int priority, int size){
+        InvokePacket packet = new InvokePacket();
+        packet.type = (byte)priority;
+        packet.sendPriority = (byte)priority;
+        packet.writeBuffer = ByteBuffer.allocate(size);
+        packet.writeLength = size;
+        return packet;
+    }
+
     @Test
     void allBlockTest(){
         Tile[][] tiles = world.createTiles(256*2 + 20, 10);